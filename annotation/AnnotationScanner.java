@@ -6,6 +6,7 @@ import src.framework.UrlPatternCheck;
 import java.io.File;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class AnnotationScanner {
 
@@ -38,42 +39,7 @@ public class AnnotationScanner {
                 String className = toClassName(root, file);
                 try {
                     Class<?> clazz = loader.loadClass(className);
-                    if (clazz.isAnnotationPresent(Controller.class)) {
-                        result.controllerClasses.add(clazz);
-
-                        Controller ctrl = clazz.getAnnotation(Controller.class);
-                        String base = ctrl.base();
-
-                        for (Method method : clazz.getDeclaredMethods()) {
-                            String fullUrl = null;
-                            String httpMethod = null;
-                            
-                            if (method.isAnnotationPresent(Route.class)) {
-                                Route route = method.getAnnotation(Route.class);
-                                fullUrl = normalizeUrl(base + route.url());
-                                httpMethod = "GET"; // Par défaut
-                            } else if (method.isAnnotationPresent(GetMapping.class)) {
-                                GetMapping mapping = method.getAnnotation(GetMapping.class);
-                                fullUrl = normalizeUrl(base + mapping.value());
-                                httpMethod = "GET";
-                            } else if (method.isAnnotationPresent(PostMapping.class)) {
-                                PostMapping mapping = method.getAnnotation(PostMapping.class);
-                                fullUrl = normalizeUrl(base + mapping.value());
-                                httpMethod = "POST";
-                            }
-                            
-                            if (fullUrl != null) {
-                                result.urlToMethod.put(fullUrl, method);
-                                result.urlPatterns.add(new UrlPatternCheck(fullUrl, method));
-                                result.methodToHttpMethod.put(method, httpMethod);
-                            }
-                        }
-                        
-                        // Vérifier si la classe est annotée avec @RestController
-                        if (clazz.isAnnotationPresent(RestController.class)) {
-                            result.restControllers.put(clazz, true);
-                        }
-                    }
+                    registerClass(clazz, result);
                 } catch (ClassNotFoundException e) {
                     e.printStackTrace();
                 }
@@ -81,7 +47,156 @@ public class AnnotationScanner {
         }
     }
 
-    private static String toClassName(File root, File file) {
+    /**
+     * Nouvel instantané : copie de current sans les routes des classes indiquées
+     * (noms de premier niveau, classes internes comprises), puis ces classes rechargées via loader.
+     * Seule une classe introuvable est considérée supprimée : si le chargement échoue
+     * autrement (fichier à moitié écrit, dépendance absente), ses anciennes routes sont gardées.
+     * Les patterns d'une classe rechargée reprennent la place des anciens : l'ordre
+     * de première correspondance ne change pas. current n'est jamais modifié.
+     */
+    public static ScanResult rescan(ScanResult current, Set<String> classNames, ClassLoader loader,
+            Consumer<String> log) {
+        ScanResult result = new ScanResult();
+
+        ScanResult reloaded = new ScanResult();
+        Set<String> replaced = new HashSet<>();
+        for (String className : classNames) {
+            try {
+                // Instantané propre à la classe : un échec en cours de route n'y laisse rien de partiel
+                ScanResult classResult = new ScanResult();
+                registerClassTree(loader.loadClass(className), classResult);
+                reloaded.urlToMethod.putAll(classResult.urlToMethod);
+                reloaded.urlPatterns.addAll(classResult.urlPatterns);
+                reloaded.methodToHttpMethod.putAll(classResult.methodToHttpMethod);
+                reloaded.controllerClasses.addAll(classResult.controllerClasses);
+                reloaded.restControllers.putAll(classResult.restControllers);
+                replaced.add(className);
+            } catch (ClassNotFoundException e) {
+                // Classe supprimée : ses routes disparaissent
+                replaced.add(className);
+            } catch (LinkageError e) {
+                log.accept("Rechargement de " + className + " impossible, anciennes routes conservées: " + e);
+            }
+        }
+
+        for (Map.Entry<String, Method> entry : current.urlToMethod.entrySet()) {
+            if (!replaced.contains(topLevelName(entry.getValue().getDeclaringClass()))) {
+                result.urlToMethod.put(entry.getKey(), entry.getValue());
+            }
+        }
+        result.urlToMethod.putAll(reloaded.urlToMethod);
+
+        // Nouveaux patterns regroupés par classe de premier niveau, dans l'ordre des anciens patterns de même URL
+        Map<String, List<UrlPatternCheck>> reloadedPatterns = new LinkedHashMap<>();
+        for (UrlPatternCheck pattern : reloaded.urlPatterns) {
+            reloadedPatterns.computeIfAbsent(topLevelName(pattern.getMethod().getDeclaringClass()), k -> new ArrayList<>())
+                    .add(pattern);
+        }
+        Map<String, Integer> previousOrder = new HashMap<>();
+        for (UrlPatternCheck pattern : current.urlPatterns) {
+            previousOrder.putIfAbsent(pattern.getPattern(), previousOrder.size());
+        }
+        for (List<UrlPatternCheck> patterns : reloadedPatterns.values()) {
+            patterns.sort(Comparator.comparingInt(
+                    pattern -> previousOrder.getOrDefault(pattern.getPattern(), Integer.MAX_VALUE)));
+        }
+
+        for (UrlPatternCheck pattern : current.urlPatterns) {
+            String owner = topLevelName(pattern.getMethod().getDeclaringClass());
+            if (!replaced.contains(owner)) {
+                result.urlPatterns.add(pattern);
+            } else {
+                // Premier pattern de la classe rechargée : ses nouveaux patterns prennent cette place
+                List<UrlPatternCheck> replacement = reloadedPatterns.remove(owner);
+                if (replacement != null) {
+                    result.urlPatterns.addAll(replacement);
+                }
+            }
+        }
+        // Classes qui n'avaient pas encore de route : à la fin
+        for (List<UrlPatternCheck> patterns : reloadedPatterns.values()) {
+            result.urlPatterns.addAll(patterns);
+        }
+
+        for (Map.Entry<Method, String> entry : current.methodToHttpMethod.entrySet()) {
+            if (!replaced.contains(topLevelName(entry.getKey().getDeclaringClass()))) {
+                result.methodToHttpMethod.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Class<?> clazz : current.controllerClasses) {
+            if (!replaced.contains(topLevelName(clazz))) {
+                result.controllerClasses.add(clazz);
+            }
+        }
+        for (Map.Entry<Class<?>, Boolean> entry : current.restControllers.entrySet()) {
+            if (!replaced.contains(topLevelName(entry.getKey()))) {
+                result.restControllers.put(entry.getKey(), entry.getValue());
+            }
+        }
+        result.methodToHttpMethod.putAll(reloaded.methodToHttpMethod);
+        result.controllerClasses.addAll(reloaded.controllerClasses);
+        result.restControllers.putAll(reloaded.restControllers);
+        return result;
+    }
+
+    /**
+     * Enregistre la classe et ses classes membres : un @Controller imbriqué (Outer$Api)
+     * est rechargé avec sa classe englobante
+     */
+    private static void registerClassTree(Class<?> clazz, ScanResult result) {
+        registerClass(clazz, result);
+        for (Class<?> member : clazz.getDeclaredClasses()) {
+            registerClassTree(member, result);
+        }
+    }
+
+    private static String topLevelName(Class<?> clazz) {
+        String name = clazz.getName();
+        int nested = name.indexOf('$');
+        return nested >= 0 ? name.substring(0, nested) : name;
+    }
+
+    private static void registerClass(Class<?> clazz, ScanResult result) {
+        if (clazz.isAnnotationPresent(Controller.class)) {
+            result.controllerClasses.add(clazz);
+
+            Controller ctrl = clazz.getAnnotation(Controller.class);
+            String base = ctrl.base();
+
+            for (Method method : clazz.getDeclaredMethods()) {
+                String fullUrl = null;
+                String httpMethod = null;
+                
+                if (method.isAnnotationPresent(Route.class)) {
+                    Route route = method.getAnnotation(Route.class);
+                    fullUrl = normalizeUrl(base + route.url());
+                    httpMethod = "GET"; // Par défaut
+                } else if (method.isAnnotationPresent(GetMapping.class)) {
+                    GetMapping mapping = method.getAnnotation(GetMapping.class);
+                    fullUrl = normalizeUrl(base + mapping.value());
+                    httpMethod = "GET";
+                } else if (method.isAnnotationPresent(PostMapping.class)) {
+                    PostMapping mapping = method.getAnnotation(PostMapping.class);
+                    fullUrl = normalizeUrl(base + mapping.value());
+                    httpMethod = "POST";
+                }
+                
+                if (fullUrl != null) {
+                    result.urlToMethod.put(fullUrl, method);
+                    result.urlPatterns.add(new UrlPatternCheck(fullUrl, method));
+                    result.methodToHttpMethod.put(method, httpMethod);
+                }
+            }
+            
+            // Vérifier si la classe est annotée avec @RestController
+            if (clazz.isAnnotationPresent(RestController.class)) {
+                result.restControllers.put(clazz, true);
+            }
+        }
+    }
+
+    public static String toClassName(File root, File file) {
         String absPath = file.getAbsolutePath();
         String rootPath = root.getAbsolutePath();
         String relative = absPath.substring(rootPath.length() + 1)
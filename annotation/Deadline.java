@@ -0,0 +1,20 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Délai de la route, en millisecondes, compté depuis l'entrée de la requête dans
+ * le framework (pour un batch : depuis l'arrivée du batch, attente dans le pool comprise).
+ * Le framework ne le vérifie qu'avant d'appeler le handler : dépassé, le handler n'est
+ * pas appelé et la requête reçoit un 503. Il n'interrompt jamais un handler en cours ;
+ * pour borner sa propre latence, le handler déclare un paramètre view.TimeBudget et
+ * règle ses timeouts sur remainingMillis().
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Deadline {
+    long value();
+}
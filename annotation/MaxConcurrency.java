@@ -0,0 +1,16 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Nombre maximum d'exécutions simultanées de la route (bulkhead).
+ * Au-delà, la requête est refusée immédiatement avec 503.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MaxConcurrency {
+    int value();
+}
@@ -0,0 +1,18 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limite de débit de la route (seau à jetons).
+ * Au-delà, la requête est refusée immédiatement avec 429.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimit {
+    double permitsPerSecond();
+    // Rafale autorisée ; 0 = une seconde de débit
+    int burst() default 0;
+}
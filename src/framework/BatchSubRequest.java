@@ -0,0 +1,199 @@
+package src.framework;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+
+import java.lang.reflect.Proxy;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Requête virtuelle d'un appel batch : méthode, chemin et paramètres
+ * viennent de l'entrée JSON, le reste est délégué à la requête englobante
+ * (ou à sa copie snapshot() quand les appels tournent sur le pool).
+ */
+public class BatchSubRequest extends HttpServletRequestWrapper {
+    private final String method;
+    private final String path;
+    private final Map<String, String[]> params;
+
+    public BatchSubRequest(HttpServletRequest req, String method, String path, Map<String, String[]> params) {
+        super(req);
+        this.method = method;
+        this.path = path;
+        this.params = Collections.unmodifiableMap(params);
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + path;
+    }
+
+    @Override
+    public String getServletPath() {
+        return path;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return null;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = params.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return params;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(params.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return params.get(name);
+    }
+
+    /**
+     * Copie de la requête du conteneur lisible depuis d'autres threads.
+     * Construite sur le thread de la requête : en-têtes, attributs, session
+     * existante et informations de connexion. Le corps et tout ce qui n'est
+     * pas copié lèvent UnsupportedOperationException.
+     */
+    public static HttpServletRequest snapshot(HttpServletRequest req) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("getContextPath", req.getContextPath());
+        values.put("getContentType", req.getContentType());
+        values.put("getCharacterEncoding", req.getCharacterEncoding());
+        values.put("getLocale", req.getLocale());
+        values.put("getScheme", req.getScheme());
+        values.put("getServerName", req.getServerName());
+        values.put("getServerPort", req.getServerPort());
+        values.put("isSecure", req.isSecure());
+        values.put("getProtocol", req.getProtocol());
+        values.put("getRemoteAddr", req.getRemoteAddr());
+        values.put("getRemoteHost", req.getRemoteHost());
+        values.put("getRemotePort", req.getRemotePort());
+        values.put("getRemoteUser", req.getRemoteUser());
+        values.put("getUserPrincipal", req.getUserPrincipal());
+        values.put("getAuthType", req.getAuthType());
+        values.put("getCookies", req.getCookies());
+        values.put("getRequestedSessionId", req.getRequestedSessionId());
+        values.put("getServletContext", req.getServletContext());
+
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : Collections.list(req.getHeaderNames())) {
+            headers.put(name, Collections.list(req.getHeaders(name)));
+        }
+
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        for (String name : Collections.list(req.getAttributeNames())) {
+            Object value = req.getAttribute(name);
+            if (value != null) {
+                attributes.put(name, value);
+            }
+        }
+
+        // Pas de création de session depuis un worker : seule la session existante est visible
+        HttpSession session = req.getSession(false);
+
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                BatchSubRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (values.containsKey(name) && method.getParameterCount() == 0) {
+                        return values.get(name);
+                    }
+                    switch (name) {
+                        case "getHeader": {
+                            List<String> list = headers.get((String) args[0]);
+                            return list != null && !list.isEmpty() ? list.get(0) : null;
+                        }
+                        case "getHeaders": {
+                            List<String> list = headers.get((String) args[0]);
+                            return Collections.enumeration(list != null ? list : Collections.<String>emptyList());
+                        }
+                        case "getHeaderNames":
+                            return Collections.enumeration(new ArrayList<>(headers.keySet()));
+                        case "getIntHeader": {
+                            List<String> list = headers.get((String) args[0]);
+                            return list != null && !list.isEmpty() ? Integer.parseInt(list.get(0)) : -1;
+                        }
+                        case "getDateHeader":
+                            return dateHeader(headers.get((String) args[0]));
+                        case "getAttribute":
+                            return attributes.get((String) args[0]);
+                        case "getAttributeNames":
+                            return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+                        case "setAttribute":
+                            if (args[1] == null) {
+                                attributes.remove((String) args[0]);
+                            } else {
+                                attributes.put((String) args[0], args[1]);
+                            }
+                            return null;
+                        case "removeAttribute":
+                            attributes.remove((String) args[0]);
+                            return null;
+                        case "getSession":
+                            boolean create = args == null || (Boolean) args[0];
+                            if (session == null && create) {
+                                throw new IllegalStateException("Création de session impossible dans un batch parallèle");
+                            }
+                            return session;
+                        case "getLocales":
+                            return Collections.enumeration(Collections.singletonList(values.get("getLocale")));
+                        case "getContentLength":
+                            return -1;
+                        case "getContentLengthLong":
+                            return -1L;
+                        case "toString":
+                            return "BatchSnapshot[" + values.get("getContextPath") + "]";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(name + "() non disponible dans un batch parallèle");
+                    }
+                });
+    }
+
+    private static long dateHeader(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(values.get(0), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("En-tête date invalide: " + values.get(0));
+        }
+    }
+}
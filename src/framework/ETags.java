@@ -0,0 +1,92 @@
+package src.framework;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Calcul des ETags forts et évaluation de If-None-Match
+ */
+public class ETags {
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private ETags() {
+    }
+
+    /**
+     * ETag fort dérivé des octets UTF-8 du corps sérialisé
+     */
+    public static String fromContent(CharSequence body) {
+        MessageDigest digest = DIGESTS.get();
+        digest.reset();
+        ResponseOutput.update(digest, body);
+        return toETag(digest.digest());
+    }
+
+    public static String fromContent(byte[] body) {
+        MessageDigest digest = DIGESTS.get();
+        digest.reset();
+        return toETag(digest.digest(body));
+    }
+
+    private static String toETag(byte[] hash) {
+        // 128 bits suffisent pour distinguer les représentations
+        byte[] truncated = new byte[16];
+        System.arraycopy(hash, 0, truncated, 0, truncated.length);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(truncated) + "\"";
+    }
+
+    /**
+     * ETag fort dérivé d'une version fournie par le handler
+     */
+    public static String fromVersion(String version) {
+        StringBuilder etag = new StringBuilder("\"v-");
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            // Seuls les caractères autorisés dans un entity-tag sont gardés
+            if (c > 0x20 && c < 0x7f && c != '"') {
+                etag.append(c);
+            }
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * ETag fort de la même représentation sous un codage de contenu (gzip, deflate) :
+     * un validateur fort doit changer avec les octets envoyés. Un ETag faible est gardé tel quel.
+     */
+    public static String withCoding(String etag, String coding) {
+        if (etag.startsWith("W/") || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+    }
+
+    /**
+     * If-None-Match utilise la comparaison faible : le préfixe W/ est ignoré
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,27 +3,78 @@ package src.framework;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
 import annotation.AnnotationScanner;
+import view.CborEncoder;
 import view.ModelView;
+import view.RequestParamMap;
 import view.RestResponse;
+import view.SseEmitter;
+import view.TimeBudget;
+import view.UploadedFile;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.rmi.ServerException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-@WebServlet(name = "FrontFramework", urlPatterns = { "/" }, loadOnStartup = 1)
+/**
+ * Contrôleur frontal : résout la route, lie les paramètres et écrit la réponse.
+ *
+ * Route batch (désactivée par défaut, activée par le paramètre d'init batch.path) :
+ * les sous-requêtes sont exécutées à l'intérieur du servlet. Les filtres et les
+ * security-constraint associés par URL aux chemins des sous-requêtes ne sont donc
+ * pas appliqués ; seuls ceux du chemin batch lui-même le sont.
+ */
+@WebServlet(name = "FrontFramework", urlPatterns = { "/" }, loadOnStartup = 1, asyncSupported = true)
+// Uploads : en mémoire jusqu'à 64 Ko puis sur disque ; limites modifiables par <multipart-config> dans web.xml
+@MultipartConfig(fileSizeThreshold = 64 * 1024, maxFileSize = 1024L * 1024 * 1024, maxRequestSize = 2048L * 1024 * 1024)
 public class FrontFramework extends HttpServlet {
 
-    private AnnotationScanner.ScanResult scanResult;
+    // Table de routage : instantané immuable remplacé d'un bloc par le mode watch.
+    // Chaque requête lit ce champ une seule fois et travaille sur son instantané.
+    private volatile AnnotationScanner.ScanResult scanResult;
+    private RouteReloader routeReloader;
+
+    // Route batch : chemin (null si désactivée), nombre max de sous-requêtes et pool optionnel
+    private String batchPath;
+    private int batchMaxRequests;
+    private int batchMaxBodySize;
+    private ExecutorService batchExecutor;
+
+    // Contrôle d'admission par route, construit à la première requête
+    private final ConcurrentHashMap<Method, RouteGuard> routeGuards = new ConcurrentHashMap<>();
+
+    // Vues : dispatchers mis en cache, moteur de templates pour les vues *.tpl
+    private static final int MAX_CACHED_VIEWS = 1024;
+    private final ConcurrentHashMap<String, RequestDispatcher> viewDispatchers = new ConcurrentHashMap<>();
+    private TemplateEngine templateEngine;
+    private String templateSuffix;
+
+    // Compression des réponses, null si désactivée
+    private ResponseCompression compression;
 
     @Override
     public void init() throws ServletException {
@@ -31,6 +82,164 @@ public class FrontFramework extends HttpServlet {
         ServletContext ctx = getServletContext();
         scanResult = AnnotationScanner.scan(ctx);
         ctx.setAttribute("scanResult", scanResult);
+
+        if (Boolean.parseBoolean(stringParam("reload.watch", "false"))) {
+            startRouteReloader(ctx);
+        }
+
+        // Opt-in : les sous-requêtes contournent les filtres mappés sur leurs propres chemins
+        batchPath = stringParam("batch.path", null);
+        if (batchPath != null && batchPath.isEmpty()) {
+            batchPath = null;
+        }
+        batchMaxRequests = intParam("batch.maxRequests", 50);
+        batchMaxBodySize = intParam("batch.maxBodySize", 1024 * 1024);
+        int batchParallelism = intParam("batch.parallelism", 0);
+        if (batchParallelism > 0) {
+            // Pool borné : si la file est pleine, le thread de la requête exécute lui-même l'appel
+            batchExecutor = new ThreadPoolExecutor(batchParallelism, batchParallelism,
+                    60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(batchParallelism * 16),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "framework-batch");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        int jsonParallelThreshold = intParam("json.parallelThreshold", 0);
+        if (jsonParallelThreshold > 0) {
+            RestResponse.enableParallelSerialization(jsonParallelThreshold,
+                    intParam("json.parallelism", Runtime.getRuntime().availableProcessors()));
+        }
+
+        // SSE : file bornée par client, heartbeat optionnel pour détecter les clients partis
+        SseEmitter.configure(intParam("sse.maxPending", 1024), intParam("sse.heartbeatSeconds", 0));
+
+        templateEngine = new TemplateEngine(ctx);
+        templateSuffix = stringParam("template.suffix", ".tpl");
+
+        if (Boolean.parseBoolean(stringParam("compression.enabled", "true"))) {
+            compression = new ResponseCompression(
+                    intParam("compression.minSize", 1024),
+                    intParam("compression.level", 6),
+                    stringParam("compression.mimeTypes",
+                            "application/json,text/html,text/plain,text/css,text/xml,application/xml,application/javascript"));
+        }
+
+        // Warm-up en dernier : le servlet n'accepte pas de requêtes avant la fin de init()
+        int warmUpIterations = intParam("warmup.iterations", 0);
+        if (warmUpIterations > 0) {
+            warmUp(warmUpIterations);
+        }
+    }
+
+    /**
+     * Fait tourner résolution, liaison des paramètres et sérialisation de chaque route
+     * sur des entrées synthétiques, sans instancier ni appeler les contrôleurs
+     */
+    private void warmUp(int iterations) {
+        long start = System.nanoTime();
+        AnnotationScanner.ScanResult snapshot = scanResult;
+        int routes = 0;
+        int skipped = 0;
+
+        for (Map.Entry<String, Method> route : snapshot.urlToMethod.entrySet()) {
+            Method method = route.getValue();
+            String httpMethod = snapshot.methodToHttpMethod.get(method);
+            // Variables de chemin remplacées par une valeur d'exemple
+            String url = route.getKey().replaceAll("\\{[^/]+\\}", "1");
+            HttpServletRequest syntheticRequest = WarmUpRequest.create(httpMethod, url);
+            guardFor(method);
+
+            try {
+                for (int i = 0; i < iterations; i++) {
+                    Map<String, Object> urlParams = new HashMap<>();
+                    resolveRoute(snapshot, url, httpMethod, urlParams);
+                    Object[] args = bindArguments(method, syntheticRequest, null, urlParams, TimeBudget.UNBOUNDED);
+
+                    RestResponse sample = RestResponse.success(args);
+                    StringBuilder json = ResponseOutput.builder();
+                    sample.writeJson(json);
+                    ETags.fromContent(json);
+                    CborEncoder.encode(sample);
+
+                    json = ResponseOutput.builder();
+                    RestResponse.error("NOT_FOUND", url, null).writeJson(json);
+                }
+                routes++;
+            } catch (Exception e) {
+                // Route non rejouable hors requête réelle (SSE...) ou vraie erreur de liaison :
+                // la cause est journalisée pour distinguer les deux
+                skipped++;
+                log("Warm-up: route " + httpMethod + " " + route.getKey() + " ignorée ("
+                        + method.getDeclaringClass().getSimpleName() + "." + method.getName() + "): "
+                        + e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        getServletContext().setAttribute("framework.warmupMillis", elapsedMillis);
+        log("Warm-up: " + routes + " route(s) x " + iterations + " itérations en " + elapsedMillis + " ms"
+                + (skipped > 0 ? ", " + skipped + " route(s) ignorée(s)" : ""));
+    }
+
+    /**
+     * Mode watch : chaque classe modifiée est rescannée seule et la table de routage
+     * est remplacée par un nouvel instantané, sans verrou côté requêtes
+     */
+    private void startRouteReloader(ServletContext ctx) throws ServletException {
+        String classesPath = ctx.getRealPath("/WEB-INF/classes");
+        if (classesPath == null || !new File(classesPath).isDirectory()) {
+            log("Watch: /WEB-INF/classes introuvable, mode watch désactivé");
+            return;
+        }
+
+        try {
+            routeReloader = new RouteReloader(
+                    new File(classesPath),
+                    Thread.currentThread().getContextClassLoader(),
+                    () -> scanResult,
+                    next -> {
+                        scanResult = next;
+                        ctx.setAttribute("scanResult", next);
+                        // Oublier les gardes des méthodes qui ne sont plus routées
+                        routeGuards.keySet().retainAll(next.methodToHttpMethod.keySet());
+                    },
+                    this::log);
+            routeReloader.start();
+        } catch (IOException e) {
+            throw new ServletException("Impossible de démarrer le mode watch", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (routeReloader != null) {
+            routeReloader.close();
+        }
+        if (batchExecutor != null) {
+            batchExecutor.shutdownNow();
+        }
+        RestResponse.disableParallelSerialization();
+        SseEmitter.shutdownHeartbeat();
+        super.destroy();
+    }
+
+    /**
+     * Lit un paramètre d'init du servlet, puis du contexte
+     */
+    private String stringParam(String name, String defaultValue) {
+        String value = getInitParameter(name);
+        if (value == null) {
+            value = getServletContext().getInitParameter(name);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    private int intParam(String name, int defaultValue) {
+        String value = stringParam(name, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
     }
 
     @Override
@@ -62,18 +271,55 @@ public class FrontFramework extends HttpServlet {
     }
 
     private void customServe(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        ResponseCompression.CompressedResponse compressed = compression != null ? compression.wrap(req, resp) : null;
+        if (compressed == null) {
+            route(req, resp);
+            return;
+        }
+
+        boolean finished = false;
+        try {
+            route(req, compressed);
+            // Sans effet sur un flux non bloquant (SSE) : il est terminé par son emitter
+            compressed.finish();
+            finished = true;
+        } finally {
+            if (!finished) {
+                // Échec (forward, client parti) : rendre le Deflater sans écrire la fin du flux
+                compressed.release();
+            }
+        }
+    }
+
+    private void route(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
         String path = req.getRequestURI().substring(req.getContextPath().length());
         String httpMethod = req.getMethod();
+        AnnotationScanner.ScanResult routes = scanResult;
+        
+        // Route batch intégrée, sauf si un contrôleur déclare déjà ce chemin
+        if (batchPath != null && path.equals(batchPath) && "POST".equalsIgnoreCase(httpMethod)
+                && (routes == null || !routes.urlToMethod.containsKey(path))) {
+            handleBatch(routes, req, resp);
+            return;
+        }
         
         try {
-            invokeMethod(path, httpMethod, req, resp);
+            invokeMethod(routes, path, httpMethod, req, resp);
+        } catch (RouteRejectedException e) {
+            // Refus immédiat du contrôle d'admission : 429 ou 503 avec une enveloppe d'erreur
+            resp.setContentType("application/json; charset=UTF-8");
+            resp.setStatus(e.getStatus());
+            if (e.getRetryAfterSeconds() > 0) {
+                resp.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            }
+            writeRestResponse(resp, RestResponse.error(e.getCode(), e.getMessage(), null));
         } catch (Exception e) {
             // Vérifier si c'est une erreur d'un RestController
             boolean isRestError = false;
             try {
-                Method method = scanResult.urlToMethod.get(path);
+                Method method = routes.urlToMethod.get(path);
                 if (method == null) {
-                    for (UrlPatternCheck pattern : scanResult.urlPatterns) {
+                    for (UrlPatternCheck pattern : routes.urlPatterns) {
                         if (pattern.matches(path)) {
                             method = pattern.getMethod();
                             break;
@@ -82,7 +328,7 @@ public class FrontFramework extends HttpServlet {
                 }
                 if (method != null) {
                     Class<?> controllerClass = method.getDeclaringClass();
-                    isRestError = scanResult.restControllers.getOrDefault(controllerClass, false);
+                    isRestError = routes.restControllers.getOrDefault(controllerClass, false);
                 }
             } catch (Exception ignored) {
             }
@@ -90,43 +336,269 @@ public class FrontFramework extends HttpServlet {
             if (isRestError) {
                 resp.setContentType("application/json; charset=UTF-8");
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                PrintWriter out = resp.getWriter();
                 RestResponse errorResponse = RestResponse.error("NOT_FOUND", e.getMessage(), null);
-                out.println(errorResponse.toJson());
-                out.flush();
+                writeRestResponse(resp, errorResponse);
             } else {
                 resp.setContentType("text/html; charset=UTF-8");
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                PrintWriter out = resp.getWriter();
-                out.println("<h1>Erreur 404</h1>");
-                out.println("<p>URL non trouvée: " + path + "</p>");
-                out.println("<p>Méthode HTTP: " + httpMethod + "</p>");
-                out.flush();
+                StringBuilder html = ResponseOutput.builder();
+                html.append("<h1>Erreur 404</h1>\n");
+                html.append("<p>URL non trouvée: ").append(path).append("</p>\n");
+                html.append("<p>Méthode HTTP: ").append(httpMethod).append("</p>\n");
+                ResponseOutput.write(resp, html);
+            }
+        }
+    }
+
+    private void invokeMethod(AnnotationScanner.ScanResult routes, String url, String httpMethod,
+            HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        long startNanos = System.nanoTime();
+        Map<String, Object> urlParams = new HashMap<>();
+        Method method = resolveRoute(routes, url, httpMethod, urlParams);
+        
+        // Vérifier si c'est un RestController
+        boolean isRestController = routes.restControllers.getOrDefault(method.getDeclaringClass(), false);
+
+        RouteGuard guard = guardFor(method);
+        guard.enter();
+        try {
+            invokeGuarded(method, isRestController, startNanos, guard, req, resp, urlParams);
+        } finally {
+            guard.exit();
+        }
+    }
+
+    private RouteGuard guardFor(Method method) {
+        RouteGuard guard = routeGuards.get(method);
+        if (guard == null) {
+            guard = routeGuards.computeIfAbsent(method, RouteGuard::forMethod);
+        }
+        return guard;
+    }
+
+    private void invokeGuarded(Method method, boolean isRestController, long startNanos, RouteGuard guard,
+            HttpServletRequest req, HttpServletResponse resp, Map<String, Object> urlParams) throws Exception {
+        Class<?> controllerClass = method.getDeclaringClass();
+        Object controllerInstance = controllerClass.getDeclaredConstructor().newInstance();
+        
+        // Préparer les arguments de la méthode
+        Object[] args = bindArguments(method, req, resp, urlParams, guard.budget(startNanos));
+        SseEmitter emitter = null;
+        for (Object arg : args) {
+            if (arg instanceof SseEmitter) {
+                emitter = (SseEmitter) arg;
+                break;
             }
         }
+        
+        Object result;
+        try {
+            // Délai déjà consommé par l'admission et la liaison : ne pas lancer un
+            // handler dont le client n'attendra pas la réponse. Un résultat obtenu,
+            // lui, est toujours renvoyé, même tardif.
+            guard.checkDeadline(startNanos);
+            result = method.invoke(controllerInstance, args);
+        } catch (Exception e) {
+            if (emitter == null) {
+                throw e;
+            }
+            // Requête déjà asynchrone : pas de corps d'erreur sur le flux non bloquant,
+            // on termine le contexte asynchrone avec un statut seul si rien n'est parti
+            int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            if (e instanceof RouteRejectedException) {
+                status = ((RouteRejectedException) e).getStatus();
+            } else {
+                log("Route SSE en échec: " + method, e instanceof InvocationTargetException ? e.getCause() : e);
+            }
+            if (!resp.isCommitted()) {
+                resp.setStatus(status);
+            }
+            emitter.complete();
+            return;
+        }
+        
+        // Route SSE : la réponse est écrite par l'emitter, le thread est libéré
+        if (emitter != null) {
+            return;
+        }
+        
+        // Si c'est un RestController, encapsuler dans RestResponse
+        if (isRestController) {
+            handleRestResponse(result, req, resp);
+        } else {
+            handleNormalResponse(result, req, resp);
+        }
     }
 
-    private void invokeMethod(String url, String httpMethod, HttpServletRequest req, HttpServletResponse resp) throws Exception {
-        if (scanResult == null || scanResult.urlToMethod.isEmpty()) {
+    /**
+     * Exécute un tableau JSON de sous-requêtes {method, path, params} et renvoie
+     * un tableau JSON d'enveloppes RestResponse, dans l'ordre des entrées
+     */
+    @SuppressWarnings("unchecked")
+    private void handleBatch(AnnotationScanner.ScanResult routes, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json; charset=UTF-8");
+
+        List<Object> calls;
+        try {
+            String body = readBatchBody(req);
+            Object parsed = JsonParser.parse(body);
+            if (!(parsed instanceof List)) {
+                throw new IllegalArgumentException("Un tableau JSON de sous-requêtes est attendu");
+            }
+            calls = (List<Object>) parsed;
+            if (calls.size() > batchMaxRequests) {
+                throw new IllegalArgumentException("Trop de sous-requêtes: " + calls.size() + " (max " + batchMaxRequests + ")");
+            }
+        } catch (IllegalArgumentException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            writeRestResponse(resp, RestResponse.error("BAD_REQUEST", e.getMessage(), null));
+            return;
+        }
+
+        // Le délai des sous-requêtes court depuis l'arrivée du batch, attente dans le pool comprise
+        long startNanos = System.nanoTime();
+        RestResponse[] responses = new RestResponse[calls.size()];
+        if (batchExecutor == null || calls.size() < 2) {
+            for (int i = 0; i < calls.size(); i++) {
+                responses[i] = executeSubRequest(routes, req, calls.get(i), startNanos);
+            }
+        } else {
+            // La requête du conteneur n'est pas thread-safe : les workers lisent une copie
+            HttpServletRequest snapshot = BatchSubRequest.snapshot(req);
+            List<Future<RestResponse>> futures = new ArrayList<>();
+            for (Object call : calls) {
+                futures.add(batchExecutor.submit(() -> executeSubRequest(routes, snapshot, call, startNanos)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    responses[i] = futures.get(i).get();
+                } catch (Exception e) {
+                    responses[i] = RestResponse.error("INTERNAL_ERROR", e.getMessage(), null);
+                }
+            }
+        }
+
+        StringBuilder json = ResponseOutput.builder();
+        json.append("[");
+        for (int i = 0; i < responses.length; i++) {
+            if (i > 0) json.append(",");
+            responses[i].writeJson(json);
+        }
+        json.append("]");
+
+        ResponseOutput.write(resp, json);
+    }
+
+    /**
+     * Lit le corps du batch en refusant tout ce qui dépasse batchMaxBodySize.
+     * Sans charset déclaré, le JSON est décodé en UTF-8 (et non ISO-8859-1).
+     */
+    private String readBatchBody(HttpServletRequest req) throws IOException {
+        long declaredLength = req.getContentLengthLong();
+        if (declaredLength > batchMaxBodySize) {
+            throw new IllegalArgumentException("Corps trop volumineux: " + declaredLength + " octets (max " + batchMaxBodySize + ")");
+        }
+
+        // Lecture bornée : Content-Length peut être absent (chunked) ou faux
+        byte[] bytes = req.getInputStream().readNBytes(batchMaxBodySize + 1);
+        if (bytes.length > batchMaxBodySize) {
+            throw new IllegalArgumentException("Corps trop volumineux (max " + batchMaxBodySize + " octets)");
+        }
+
+        String encoding = req.getCharacterEncoding();
+        Charset charset = StandardCharsets.UTF_8;
+        if (encoding != null) {
+            try {
+                charset = Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Charset non supporté: " + encoding);
+            }
+        }
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Résout, lie et exécute une sous-requête batch via le chemin normal des routes
+     */
+    private RestResponse executeSubRequest(AnnotationScanner.ScanResult routes, HttpServletRequest req, Object call,
+            long startNanos) {
+        if (!(call instanceof Map)) {
+            return RestResponse.error("BAD_REQUEST", "Sous-requête invalide", null);
+        }
+        Map<?, ?> entry = (Map<?, ?>) call;
+        Object pathValue = entry.get("path");
+        if (pathValue == null) {
+            return RestResponse.error("BAD_REQUEST", "Champ 'path' manquant", null);
+        }
+        String path = pathValue.toString();
+        String httpMethod = entry.get("method") != null ? entry.get("method").toString().toUpperCase() : "GET";
+
+        // Paramètres : une valeur simple ou un tableau de valeurs
+        Map<String, String[]> params = new LinkedHashMap<>();
+        if (entry.get("params") instanceof Map) {
+            for (Map.Entry<?, ?> param : ((Map<?, ?>) entry.get("params")).entrySet()) {
+                Object value = param.getValue();
+                if (value instanceof List) {
+                    List<?> values = (List<?>) value;
+                    String[] array = new String[values.size()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = String.valueOf(values.get(i));
+                    }
+                    params.put(param.getKey().toString(), array);
+                } else if (value != null) {
+                    params.put(param.getKey().toString(), new String[] { value.toString() });
+                }
+            }
+        }
+
+        try {
+            Map<String, Object> urlParams = new HashMap<>();
+            Method method = resolveRoute(routes, path, httpMethod, urlParams);
+            Class<?> controllerClass = method.getDeclaringClass();
+            if (!routes.restControllers.getOrDefault(controllerClass, false)) {
+                return RestResponse.error("NOT_REST", "Seules les routes @RestController sont acceptées en batch", path);
+            }
+
+            RouteGuard guard = guardFor(method);
+            guard.enter();
+            try {
+                HttpServletRequest subRequest = new BatchSubRequest(req, httpMethod, path, params);
+                Object controllerInstance = controllerClass.getDeclaredConstructor().newInstance();
+                Object[] args = bindArguments(method, subRequest, null, urlParams, guard.budget(startNanos));
+                guard.checkDeadline(startNanos);
+                return toRestResponse(method.invoke(controllerInstance, args));
+            } finally {
+                guard.exit();
+            }
+        } catch (RouteRejectedException e) {
+            return RestResponse.error(e.getCode(), e.getMessage(), path);
+        } catch (InvocationTargetException e) {
+            return RestResponse.error("INTERNAL_ERROR", e.getCause().getMessage(), path);
+        } catch (Exception e) {
+            return RestResponse.error("NOT_FOUND", e.getMessage(), path);
+        }
+    }
+
+    /**
+     * Trouve la méthode associée à l'URL et remplit urlParams avec les variables du chemin
+     */
+    private Method resolveRoute(AnnotationScanner.ScanResult routes, String url, String httpMethod,
+            Map<String, Object> urlParams) throws Exception {
+        if (routes == null || routes.urlToMethod.isEmpty()) {
             throw new Exception("Aucune route configurée");
         }
 
         Method method = null;
-        Map<String, Object> urlParams = new HashMap<>();
         
         // 1. Chercher d'abord une correspondance exacte
-        method = scanResult.urlToMethod.get(url);
+        method = routes.urlToMethod.get(url);
         
         // 2. Si pas de correspondance exacte, chercher un pattern
         if (method == null) {
-            for (UrlPatternCheck pattern : scanResult.urlPatterns) {
-                if (pattern.matches(url)) {
+            for (UrlPatternCheck pattern : routes.urlPatterns) {
+                // Un seul passage de la regex : test et extraction des variables
+                if (pattern.matchInto(url, urlParams)) {
                     method = pattern.getMethod();
-                    Map<String, String> extractedParams = pattern.extractParams(url);
-                    // Convertir Map<String, String> en Map<String, Object>
-                    for (Map.Entry<String, String> entry : extractedParams.entrySet()) {
-                        urlParams.put(entry.getKey(), entry.getValue());
-                    }
                     break;
                 }
             }
@@ -136,50 +608,65 @@ public class FrontFramework extends HttpServlet {
             throw new Exception("URL non trouvée: " + url);
         }
 
-        String expectedHttpMethod = scanResult.methodToHttpMethod.get(method);
+        String expectedHttpMethod = routes.methodToHttpMethod.get(method);
         if (!expectedHttpMethod.equalsIgnoreCase(httpMethod)) {
             throw new Exception("Méthode HTTP non autorisée. Attendu: " + expectedHttpMethod + ", Reçu: " + httpMethod);
         }
 
-        Class<?> controllerClass = method.getDeclaringClass();
-        Object controllerInstance = controllerClass.getDeclaredConstructor().newInstance();
-        
-        // Vérifier si c'est un RestController
-        boolean isRestController = scanResult.restControllers.getOrDefault(controllerClass, false);
-        
-        // Préparer les arguments de la méthode
+        return method;
+    }
+
+    /**
+     * Construit les arguments du handler à partir de la requête et des variables du chemin.
+     * resp peut être null (sous-requête batch) : les routes SSE sont alors refusées.
+     */
+    private Object[] bindArguments(Method method, HttpServletRequest req, HttpServletResponse resp,
+            Map<String, Object> urlParams, TimeBudget budget) throws Exception {
         Parameter[] parameters = method.getParameters();
         Object[] args = new Object[parameters.length];
+        boolean needsEmitter = false;
+        
+        // Un upload trop gros doit être signalé même si la route n'attend aucun fichier :
+        // sinon getParameter() renvoie simplement null
+        checkMultipart(req);
         
         for (int i = 0; i < parameters.length; i++) {
             Parameter param = parameters[i];
             Class<?> paramType = param.getType();
             
-            // Si le paramètre est un Map<String, Object>
-            if (paramType == Map.class) {
-                Map<String, Object> paramMap = new HashMap<>();
-                
-                // Récupérer tous les paramètres de la requête HTTP
-                Map<String, String[]> requestParams = req.getParameterMap();
-                for (Map.Entry<String, String[]> entry : requestParams.entrySet()) {
-                    String key = entry.getKey();
-                    String[] values = entry.getValue();
-                    
-                    // Si un seul value, on met directement le String
-                    // Sinon on met le tableau
-                    if (values.length == 1) {
-                        paramMap.put(key, values[0]);
-                    } else {
-                        paramMap.put(key, values);
-                    }
+            // SseEmitter : créé après tous les autres arguments (voir plus bas)
+            if (paramType == SseEmitter.class) {
+                if (resp == null) {
+                    throw new Exception("Route SSE non supportée dans un batch");
                 }
-                
-                // Ajouter aussi les paramètres extraits de l'URL
-                for (Map.Entry<String, Object> entry : urlParams.entrySet()) {
-                    paramMap.put(entry.getKey(), entry.getValue());
+                needsEmitter = true;
+            }
+            // Temps restant avant le @Deadline de la route
+            else if (paramType == TimeBudget.class) {
+                args[i] = budget;
+            }
+            // Si le paramètre est un fichier envoyé en multipart/form-data
+            else if (paramType == UploadedFile.class || paramType == UploadedFile[].class) {
+                String partName;
+                if (param.isAnnotationPresent(annotation.RequestParam.class)) {
+                    partName = param.getAnnotation(annotation.RequestParam.class).value();
+                } else if (param.isNamePresent()) {
+                    partName = param.getName();
+                } else {
+                    // Sans -parameters le nom serait arg0 : le fichier serait silencieusement null
+                    throw new Exception("Paramètre fichier sans nom dans " + method.getName()
+                            + " : ajouter @RequestParam ou compiler avec -parameters");
                 }
-                
-                args[i] = paramMap;
+                List<UploadedFile> files = uploadedFiles(req, partName);
+                if (paramType == UploadedFile.class) {
+                    args[i] = files.isEmpty() ? null : files.get(0);
+                } else {
+                    args[i] = files.toArray(new UploadedFile[0]);
+                }
+            }
+            // Si le paramètre est un Map<String, Object> : vue paresseuse, sans copie
+            else if (paramType == Map.class || paramType == RequestParamMap.class) {
+                args[i] = new RequestParamMap(req.getParameterMap(), urlParams);
             }
             // Si le paramètre a l'annotation @RequestParam
             else if (param.isAnnotationPresent(annotation.RequestParam.class)) {
@@ -222,33 +709,141 @@ public class FrontFramework extends HttpServlet {
             }
         }
         
-        Object result = method.invoke(controllerInstance, args);
-        
-        // Si c'est un RestController, encapsuler dans RestResponse
-        if (isRestController) {
-            handleRestResponse(result, resp);
-        } else {
-            handleNormalResponse(result, req, resp);
+        // Passer en mode asynchrone en dernier : un échec de liaison ne laisse
+        // ainsi jamais une requête asynchrone ouverte sans personne pour la terminer
+        if (needsEmitter) {
+            SseEmitter emitter = new SseEmitter(req, resp);
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].getType() == SseEmitter.class) {
+                    args[i] = emitter;
+                }
+            }
         }
+        
+        return args;
     }
     
-    private void handleRestResponse(Object result, HttpServletResponse resp) throws IOException {
-        resp.setContentType("application/json; charset=UTF-8");
-        PrintWriter out = resp.getWriter();
+    private void handleRestResponse(Object result, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        // Négociation : CBOR si le client le préfère explicitement, JSON sinon
+        boolean binary = acceptsCbor(req.getHeader("Accept"));
+        resp.addHeader("Vary", "Accept");
+        resp.setContentType(binary ? CborEncoder.CONTENT_TYPE : "application/json; charset=UTF-8");
+        
+        RestResponse restResponse = toRestResponse(result);
+        
+        // GET conditionnel : ETag fort, 304 si le client a déjà cette représentation
+        boolean conditional = "GET".equalsIgnoreCase(req.getMethod()) && "success".equals(restResponse.getStatus());
+        String ifNoneMatch = conditional ? req.getHeader("If-None-Match") : null;
+        
+        // Version fournie par le handler : pas besoin de sérialiser pour répondre 304
+        if (conditional && restResponse.getVersion() != null) {
+            String version = binary ? restResponse.getVersion() + "-cbor" : restResponse.getVersion();
+            if (notModified(resp, ifNoneMatch, ETags.fromVersion(version))) {
+                return;
+            }
+            conditional = false;
+        }
+        
+        if (binary) {
+            byte[] body = CborEncoder.encode(restResponse);
+            if (conditional && notModified(resp, ifNoneMatch, ETags.fromContent(body))) {
+                return;
+            }
+            resp.setContentLength(body.length);
+            ServletOutputStream out = resp.getOutputStream();
+            out.write(body);
+            out.flush();
+            return;
+        }
         
-        RestResponse restResponse;
+        StringBuilder json = ResponseOutput.builder();
+        restResponse.writeJson(json);
+        
+        if (conditional && notModified(resp, ifNoneMatch, ETags.fromContent(json))) {
+            return;
+        }
         
+        ResponseOutput.write(resp, json);
+    }
+
+    /**
+     * Pose l'ETag et répond 304 si le client a déjà cette représentation.
+     * Derrière la compression, le client peut détenir la variante -gzip / -deflate
+     * de l'ETag, posée par ResponseCompression quand le corps est compressé.
+     */
+    private boolean notModified(HttpServletResponse resp, String ifNoneMatch, String etag) {
+        if (resp instanceof ResponseCompression.CompressedResponse) {
+            String coded = ETags.withCoding(etag, ((ResponseCompression.CompressedResponse) resp).getEncoding());
+            if (ETags.matches(ifNoneMatch, coded)) {
+                resp.setHeader("ETag", coded);
+                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        resp.setHeader("ETag", etag);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Écrit une enveloppe JSON via le tampon UTF-8 du thread
+     */
+    private void writeRestResponse(HttpServletResponse resp, RestResponse restResponse) throws IOException {
+        StringBuilder json = ResponseOutput.builder();
+        restResponse.writeJson(json);
+        ResponseOutput.write(resp, json);
+    }
+
+    /**
+     * Vrai si Accept demande application/cbor avec une qualité au moins égale à celle de JSON.
+     * Un navigateur qui n'annonce pas CBOR reste donc en JSON.
+     */
+    private boolean acceptsCbor(String accept) {
+        if (accept == null || !accept.contains(CborEncoder.CONTENT_TYPE)) {
+            return false;
+        }
+
+        double cborQuality = 0;
+        double jsonQuality = 0;
+        for (String token : accept.split(",")) {
+            String[] parts = token.trim().split(";");
+            String mediaType = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String attr = parts[i].trim();
+                if (attr.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(attr.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (mediaType.equals(CborEncoder.CONTENT_TYPE)) {
+                cborQuality = Math.max(cborQuality, quality);
+            } else if (mediaType.equals("application/json")) {
+                jsonQuality = Math.max(jsonQuality, quality);
+            }
+        }
+        return cborQuality > 0 && cborQuality >= jsonQuality;
+    }
+
+    /**
+     * Encapsule le résultat d'un handler dans l'enveloppe RestResponse
+     */
+    private RestResponse toRestResponse(Object result) {
         if (result instanceof RestResponse) {
-            restResponse = (RestResponse) result;
+            return (RestResponse) result;
         } else if (result instanceof ModelView) {
             ModelView modelView = (ModelView) result;
-            restResponse = RestResponse.success(modelView.getData());
+            return RestResponse.success(modelView.getData());
         } else {
-            restResponse = RestResponse.success(result);
+            return RestResponse.success(result);
         }
-        
-        out.println(restResponse.toJson());
-        out.flush();
     }
     
     private void handleNormalResponse(Object result, HttpServletRequest req, HttpServletResponse resp) 
@@ -256,11 +851,6 @@ public class FrontFramework extends HttpServlet {
         if (result instanceof ModelView) {
             ModelView modelView = (ModelView) result;
 
-            // Transférer toutes les données du ModelView dans la requête
-            for (Map.Entry<String, Object> entry : modelView.getData().entrySet()) {
-                req.setAttribute(entry.getKey(), entry.getValue());
-            }
-
             String viewPath = modelView.getView();
             
             // Normaliser le chemin de la vue pour qu'il soit absolu
@@ -268,18 +858,45 @@ public class FrontFramework extends HttpServlet {
                 viewPath = "/" + viewPath;
             }
             
-            RequestDispatcher dispatcher = req.getRequestDispatcher(viewPath);
+            // Template intégré : rendu direct depuis les données, sans forward ni attributs
+            if (viewPath.endsWith(templateSuffix)) {
+                resp.setContentType("text/html; charset=UTF-8");
+                StringBuilder html = ResponseOutput.builder();
+                templateEngine.render(viewPath, modelView.getData(), html);
+                ResponseOutput.write(resp, html);
+                return;
+            }
+
+            // Transférer toutes les données du ModelView dans la requête
+            for (Map.Entry<String, Object> entry : modelView.getData().entrySet()) {
+                req.setAttribute(entry.getKey(), entry.getValue());
+            }
+            
+            RequestDispatcher dispatcher = dispatcherFor(viewPath);
             dispatcher.forward(req, resp);
         } else if (result instanceof String) {
             resp.setContentType("text/html; charset=UTF-8");
-            PrintWriter out = resp.getWriter();
-            out.println((String) result);
-            out.flush();
+            ResponseOutput.write(resp, (String) result);
         } else {
             throw new Exception("La méthode doit retourner un String ou un ModelView");
         }
     }
 
+    /**
+     * RequestDispatcher de la vue, résolu une fois par chemin
+     */
+    private RequestDispatcher dispatcherFor(String viewPath) {
+        RequestDispatcher dispatcher = viewDispatchers.get(viewPath);
+        if (dispatcher == null) {
+            dispatcher = getServletContext().getRequestDispatcher(viewPath);
+            // Borne le cache si les chemins de vue sont construits dynamiquement
+            if (dispatcher != null && viewDispatchers.size() < MAX_CACHED_VIEWS) {
+                viewDispatchers.putIfAbsent(viewPath, dispatcher);
+            }
+        }
+        return dispatcher;
+    }
+
     /**
      * Vérifie si un type est primitif, wrapper ou String
      */
@@ -351,6 +968,15 @@ public class FrontFramework extends HttpServlet {
             String fieldName = field.getName();
             Class<?> fieldType = field.getType();
             
+            // Champ fichier : lu depuis la partie multipart du même nom
+            if (fieldType == UploadedFile.class) {
+                List<UploadedFile> files = uploadedFiles(req, fieldName);
+                if (!files.isEmpty()) {
+                    field.set(instance, files.get(0));
+                }
+                continue;
+            }
+            
             // Chercher la valeur dans les paramètres de la requête
             String paramValue = req.getParameter(fieldName);
             
@@ -370,6 +996,46 @@ public class FrontFramework extends HttpServlet {
         return instance;
     }
 
+    private static boolean isMultipart(HttpServletRequest req) {
+        String contentType = req.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/form-data");
+    }
+
+    /**
+     * Fait analyser le corps multipart par le conteneur ; 413 si une limite est dépassée
+     */
+    private void checkMultipart(HttpServletRequest req) throws Exception {
+        if (!isMultipart(req)) {
+            return;
+        }
+        try {
+            req.getParts();
+        } catch (IllegalStateException e) {
+            // Taille maximale d'une partie ou de la requête dépassée
+            throw new RouteRejectedException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "PAYLOAD_TOO_LARGE",
+                    "Fichier ou requête trop volumineux", 0);
+        }
+    }
+
+    /**
+     * Parties fichier de la requête multipart portant ce nom, dans l'ordre d'envoi.
+     * Les limites de @MultipartConfig (ou de web.xml) sont appliquées par le conteneur.
+     */
+    private List<UploadedFile> uploadedFiles(HttpServletRequest req, String name) throws Exception {
+        List<UploadedFile> files = new ArrayList<>();
+        if (!isMultipart(req)) {
+            return files;
+        }
+
+        // Limites déjà vérifiées par checkMultipart : le conteneur garde les parties analysées
+        for (Part part : req.getParts()) {
+            if (part.getName().equals(name) && part.getSubmittedFileName() != null) {
+                files.add(new UploadedFile(part));
+            }
+        }
+        return files;
+    }
+
     private void defaultServe(HttpServletRequest req, HttpServletResponse resp)
             throws IOException, ServletException {
         RequestDispatcher defaultDispatcher = getServletContext().getNamedDispatcher("default");
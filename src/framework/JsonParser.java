@@ -0,0 +1,224 @@
+package src.framework;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parseur JSON minimal : objets -> Map, tableaux -> List,
+ * nombres -> Long ou Double, plus String, Boolean et null.
+ */
+public class JsonParser {
+    // Au-delà, une entrée hostile ([[[[...) épuiserait la pile du thread
+    private static final int MAX_DEPTH = 64;
+
+    private final String json;
+    private int pos;
+    private int depth;
+
+    private JsonParser(String json) {
+        this.json = json;
+        this.pos = 0;
+    }
+
+    public static Object parse(String json) {
+        JsonParser parser = new JsonParser(json);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("Contenu inattendu après la valeur JSON");
+        }
+        return value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= json.length()) {
+            throw error("Fin de JSON inattendue");
+        }
+
+        char c = json.charAt(pos);
+        switch (c) {
+            case '{':
+                enter();
+                Map<String, Object> map = readObject();
+                depth--;
+                return map;
+            case '[':
+                enter();
+                List<Object> list = readArray();
+                depth--;
+                return list;
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Imbrication trop profonde (max " + MAX_DEPTH + ")");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Clé attendue");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("':' attendu");
+            }
+            pos++;
+            map.put(key, readValue());
+            skipWhitespace();
+
+            char c = peek();
+            pos++;
+            if (c == '}') {
+                return map;
+            }
+            if (c != ',') {
+                throw error("',' ou '}' attendu");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+
+            char c = peek();
+            pos++;
+            if (c == ']') {
+                return list;
+            }
+            if (c != ',') {
+                throw error("',' ou ']' attendu");
+            }
+        }
+    }
+
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if (pos >= json.length()) {
+                break;
+            }
+            char escaped = json.charAt(pos++);
+            switch (escaped) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append(readHexChar());
+                    break;
+                default:
+                    sb.append(escaped);
+            }
+        }
+        throw error("Chaîne non terminée");
+    }
+
+    private char readHexChar() {
+        if (pos + 4 > json.length()) {
+            throw error("Échappement \\u incomplet");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(json.charAt(pos + i), 16);
+            if (digit < 0) {
+                throw error("Échappement \\u invalide");
+            }
+            value = value * 16 + digit;
+        }
+        pos += 4;
+        return (char) value;
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+            pos++;
+        }
+        String number = json.substring(start, pos);
+        if (number.isEmpty()) {
+            throw error("Valeur inattendue");
+        }
+        try {
+            if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                return Double.parseDouble(number);
+            }
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("Nombre invalide: " + number);
+        }
+    }
+
+    private void expect(String word) {
+        if (!json.startsWith(word, pos)) {
+            throw error("'" + word + "' attendu");
+        }
+        pos += word.length();
+    }
+
+    private char peek() {
+        if (pos >= json.length()) {
+            throw error("Fin de JSON inattendue");
+        }
+        return json.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (position " + pos + ")");
+    }
+}
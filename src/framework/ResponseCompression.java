@@ -0,0 +1,429 @@
+package src.framework;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compression gzip / deflate des réponses, négociée avec Accept-Encoding.
+ * Le corps est gardé en mémoire jusqu'au seuil minSize seulement : au-delà,
+ * il est compressé au fil de l'eau ; en dessous, il est envoyé tel quel.
+ */
+public class ResponseCompression {
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    // Un Deflater réutilisé par thread et par format (gzip = raw, deflate = zlib)
+    private static final ThreadLocal<Deflater> GZIP_DEFLATERS = new ThreadLocal<>();
+    private static final ThreadLocal<Deflater> ZLIB_DEFLATERS = new ThreadLocal<>();
+
+    private final int minSize;
+    private final int level;
+    private final Set<String> mimeTypes;
+
+    public ResponseCompression(int minSize, int level, String mimeTypes) {
+        this.minSize = minSize;
+        this.level = level;
+        this.mimeTypes = new HashSet<>();
+        for (String type : mimeTypes.split(",")) {
+            if (!type.trim().isEmpty()) {
+                this.mimeTypes.add(type.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    /**
+     * Enveloppe la réponse si le client accepte gzip ou deflate, sinon renvoie null
+     */
+    public CompressedResponse wrap(HttpServletRequest req, HttpServletResponse resp) {
+        String encoding = negotiate(req.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            return null;
+        }
+        return new CompressedResponse(resp, encoding);
+    }
+
+    /**
+     * Choisit gzip en priorité, puis deflate, en ignorant les encodages à q=0
+     */
+    private static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String attr = parts[i].trim();
+                if (attr.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(attr.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (refused) {
+                continue;
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return "gzip";
+            }
+            if (name.equals("deflate")) {
+                deflate = true;
+            }
+        }
+        return deflate ? "deflate" : null;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int separator = contentType.indexOf(';');
+        String mime = (separator >= 0 ? contentType.substring(0, separator) : contentType).trim().toLowerCase(Locale.ROOT);
+        return mimeTypes.contains(mime);
+    }
+
+    private Deflater acquireDeflater(boolean gzip) {
+        ThreadLocal<Deflater> pool = gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS;
+        Deflater deflater = pool.get();
+        if (deflater == null) {
+            return new Deflater(level, gzip);
+        }
+        // Retirer le Deflater du pool tant qu'il est utilisé par ce flux
+        pool.set(null);
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    private static void releaseDeflater(Deflater deflater, boolean gzip) {
+        ThreadLocal<Deflater> pool = gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS;
+        deflater.reset();
+        if (pool.get() == null) {
+            pool.set(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Réponse dont le flux de sortie passe par CompressingOutputStream
+     */
+    public class CompressedResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        CompressedResponse(HttpServletResponse resp, String encoding) {
+            super(resp);
+            this.encoding = encoding;
+            // La représentation dépend de Accept-Encoding, même si on n'envoie rien de compressé
+            resp.addHeader("Vary", "Accept-Encoding");
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() a déjà été appelé");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() a déjà été appelé");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private CompressingOutputStream stream() throws IOException {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this, (HttpServletResponse) getResponse());
+            }
+            return stream;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // Retenue jusqu'à ce qu'on sache si le corps sera compressé
+            if (stream != null && stream.decided) {
+                if (!stream.compressing) {
+                    super.setContentLengthLong(len);
+                }
+            } else {
+                contentLength = len;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            ((HttpServletResponse) getResponse()).addHeader("Vary", "Accept-Encoding");
+            contentLength = -1;
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+        }
+
+        /**
+         * Abandonne le corps après une erreur : libère le Deflater sans rien écrire
+         */
+        public void release() {
+            if (stream != null && !stream.nonBlocking) {
+                stream.release();
+            }
+        }
+
+        /**
+         * Termine le corps : vide le writer, écrit la fin du flux compressé.
+         * Un flux passé en mode non bloquant appartient à son WriteListener : rien à faire ici.
+         */
+        public void finish() throws IOException {
+            if (stream != null && stream.nonBlocking) {
+                return;
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+    }
+
+    /**
+     * Flux qui bufferise jusqu'au seuil puis bascule en compression ou en écriture directe
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+        private final CompressedResponse wrapper;
+        private final HttpServletResponse resp;
+        private final ServletOutputStream target;
+        private byte[] buffer;
+        private int count;
+        private boolean decided;
+        private boolean compressing;
+        private boolean finished;
+        private boolean nonBlocking;
+        private boolean gzip;
+        private Deflater deflater;
+        private DeflaterOutputStream deflaterStream;
+        private CRC32 crc;
+        private long totalIn;
+
+        CompressingOutputStream(CompressedResponse wrapper, HttpServletResponse resp) throws IOException {
+            this.wrapper = wrapper;
+            this.resp = resp;
+            this.target = resp.getOutputStream();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("Flux déjà terminé");
+            }
+            if (!decided) {
+                if (!isCompressible(resp.getContentType())) {
+                    passThrough();
+                } else if (count + len < minSize) {
+                    bufferBytes(b, off, len);
+                    return;
+                } else {
+                    startCompression();
+                }
+            }
+
+            if (compressing) {
+                crc.update(b, off, len);
+                totalIn += len;
+                deflaterStream.write(b, off, len);
+            } else {
+                target.write(b, off, len);
+            }
+        }
+
+        private void bufferBytes(byte[] b, int off, int len) {
+            if (buffer == null) {
+                buffer = new byte[Math.max(minSize, 16)];
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        private void passThrough() throws IOException {
+            decided = true;
+            compressing = false;
+            if (wrapper.contentLength >= 0) {
+                resp.setContentLengthLong(wrapper.contentLength);
+            }
+            if (count > 0) {
+                target.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        private void startCompression() throws IOException {
+            decided = true;
+            compressing = true;
+            gzip = wrapper.encoding.equals("gzip");
+
+            // La longueur retenue par le wrapper n'est jamais transmise : elle ne vaut plus
+            resp.setHeader("Content-Encoding", wrapper.encoding);
+            // Les octets changent : l'ETag fort aussi
+            String etag = resp.getHeader("ETag");
+            if (etag != null) {
+                resp.setHeader("ETag", ETags.withCoding(etag, wrapper.encoding));
+            }
+
+            deflater = acquireDeflater(gzip);
+            deflaterStream = new DeflaterOutputStream(target, deflater, 8192);
+            crc = new CRC32();
+            if (gzip) {
+                target.write(GZIP_HEADER);
+            }
+
+            if (count > 0) {
+                crc.update(buffer, 0, count);
+                totalIn += count;
+                deflaterStream.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        void resetBuffer() {
+            if (!decided) {
+                count = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Avant la décision, un flush ne doit pas engager la réponse
+            if (!decided) {
+                return;
+            }
+            if (compressing) {
+                deflaterStream.flush();
+            } else {
+                target.flush();
+            }
+        }
+
+        void release() {
+            finished = true;
+            if (deflater != null) {
+                releaseDeflater(deflater, gzip);
+                deflater = null;
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (!decided) {
+                passThrough();
+            }
+            finished = true;
+
+            if (compressing) {
+                try {
+                    deflaterStream.finish();
+                    if (gzip) {
+                        writeIntLE(crc.getValue());
+                        writeIntLE(totalIn);
+                    }
+                } finally {
+                    releaseDeflater(deflater, gzip);
+                    deflater = null;
+                }
+            }
+            target.flush();
+        }
+
+        private void writeIntLE(long value) throws IOException {
+            target.write((int) (value & 0xff));
+            target.write((int) ((value >> 8) & 0xff));
+            target.write((int) ((value >> 16) & 0xff));
+            target.write((int) ((value >> 24) & 0xff));
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            nonBlocking = true;
+            target.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package src.framework;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+
+/**
+ * Écriture des corps texte en UTF-8 sans passer par PrintWriter.
+ * Le texte est encodé directement dans un tampon d'octets propre au thread :
+ * un corps qui tient dans le tampon part avec un Content-Length exact en un
+ * seul write, un corps plus grand est envoyé tampon par tampon.
+ */
+public class ResponseOutput {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Au-delà, le StringBuilder du thread est remplacé pour ne pas garder un gros tableau
+    private static final int MAX_RETAINED_CHARS = 256 * 1024;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private static class Buffers {
+        StringBuilder text = new StringBuilder(BUFFER_SIZE);
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        int count;
+    }
+
+    private ResponseOutput() {
+    }
+
+    /**
+     * StringBuilder du thread, vidé ; valable jusqu'au prochain appel sur ce thread
+     */
+    public static StringBuilder builder() {
+        Buffers buffers = BUFFERS.get();
+        if (buffers.text.capacity() > MAX_RETAINED_CHARS) {
+            buffers.text = new StringBuilder(BUFFER_SIZE);
+        } else {
+            buffers.text.setLength(0);
+        }
+        return buffers.text;
+    }
+
+    /**
+     * Écrit body en UTF-8 sur le flux de la réponse
+     */
+    public static void write(HttpServletResponse resp, CharSequence body) throws IOException {
+        Buffers buffers = BUFFERS.get();
+        byte[] bytes = buffers.bytes;
+        int length = body.length();
+
+        int next = encode(body, 0, buffers);
+        ServletOutputStream out = resp.getOutputStream();
+        if (next == length) {
+            // Corps complet dans le tampon : longueur exacte, un seul write
+            resp.setContentLength(buffers.count);
+            out.write(bytes, 0, buffers.count);
+            return;
+        }
+
+        // Corps plus grand que le tampon : envoi en flux
+        out.write(bytes, 0, buffers.count);
+        while (next < length) {
+            next = encode(body, next, buffers);
+            out.write(bytes, 0, buffers.count);
+        }
+    }
+
+    /**
+     * Ajoute au digest les octets UTF-8 de body, sans créer de byte[]
+     */
+    public static void update(MessageDigest digest, CharSequence body) {
+        Buffers buffers = BUFFERS.get();
+        int next = 0;
+        int length = body.length();
+        while (next < length) {
+            next = encode(body, next, buffers);
+            digest.update(buffers.bytes, 0, buffers.count);
+        }
+    }
+
+    /**
+     * Encode body à partir de index jusqu'à remplir le tampon ; renvoie l'index suivant
+     */
+    private static int encode(CharSequence body, int index, Buffers buffers) {
+        byte[] bytes = buffers.bytes;
+        // Garder 4 octets de marge pour le plus long caractère UTF-8
+        int limit = bytes.length - 4;
+        int length = body.length();
+        int count = 0;
+
+        while (index < length && count <= limit) {
+            char c = body.charAt(index++);
+            if (c < 0x80) {
+                bytes[count++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[count++] = (byte) (0xc0 | (c >> 6));
+                bytes[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && index < length && Character.isLowSurrogate(body.charAt(index))) {
+                int codePoint = Character.toCodePoint(c, body.charAt(index++));
+                bytes[count++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate isolé : remplacé comme le fait String.getBytes
+                bytes[count++] = (byte) '?';
+            } else {
+                bytes[count++] = (byte) (0xe0 | (c >> 12));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+
+        buffers.count = count;
+        return index;
+    }
+}
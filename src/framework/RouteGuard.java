@@ -0,0 +1,127 @@
+package src.framework;
+
+import annotation.Deadline;
+import annotation.MaxConcurrency;
+import annotation.RateLimit;
+import jakarta.servlet.http.HttpServletResponse;
+import view.TimeBudget;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contrôle d'admission d'une route : concurrence maximale, débit et délai.
+ * Tout l'état est en compteurs atomiques : aucun verrou, aucun thread bloqué,
+ * un refus est immédiat.
+ */
+public class RouteGuard {
+    public static final RouteGuard NONE = new RouteGuard(0, 0, 0, 0);
+
+    private final int maxConcurrent;
+    private final AtomicInteger active = new AtomicInteger();
+
+    // Seau à jetons sous forme GCRA : un seul horodatage théorique en nanosecondes
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    private final long deadlineNanos;
+
+    private RouteGuard(int maxConcurrent, long intervalNanos, long burstNanos, long deadlineNanos) {
+        this.maxConcurrent = maxConcurrent;
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = burstNanos;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Construit le garde à partir des annotations de la méthode
+     */
+    public static RouteGuard forMethod(Method method) {
+        MaxConcurrency concurrency = method.getAnnotation(MaxConcurrency.class);
+        RateLimit rateLimit = method.getAnnotation(RateLimit.class);
+        Deadline deadline = method.getAnnotation(Deadline.class);
+        if (concurrency == null && rateLimit == null && deadline == null) {
+            return NONE;
+        }
+
+        long interval = 0;
+        long burst = 0;
+        if (rateLimit != null && rateLimit.permitsPerSecond() > 0) {
+            interval = (long) (TimeUnit.SECONDS.toNanos(1) / rateLimit.permitsPerSecond());
+            int burstSize = rateLimit.burst() > 0 ? rateLimit.burst() : (int) Math.ceil(rateLimit.permitsPerSecond());
+            burst = interval * Math.max(1, burstSize);
+        }
+
+        return new RouteGuard(
+                concurrency != null ? concurrency.value() : 0,
+                interval,
+                burst,
+                deadline != null ? TimeUnit.MILLISECONDS.toNanos(deadline.value()) : 0);
+    }
+
+    /**
+     * Admet la requête ou la refuse ; chaque entrée admise doit être suivie de exit()
+     */
+    public void enter() throws RouteRejectedException {
+        if (maxConcurrent > 0 && active.incrementAndGet() > maxConcurrent) {
+            active.decrementAndGet();
+            throw new RouteRejectedException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "TOO_MANY_CONCURRENT",
+                    "Route saturée: " + maxConcurrent + " exécutions simultanées maximum", 1);
+        }
+
+        if (intervalNanos > 0) {
+            long waitNanos = acquireToken();
+            if (waitNanos > 0) {
+                exit();
+                throw new RouteRejectedException(429, "RATE_LIMITED",
+                        "Limite de débit atteinte pour cette route",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+        }
+    }
+
+    public void exit() {
+        if (maxConcurrent > 0) {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Prend un jeton ; renvoie 0 si accepté, sinon l'attente avant le prochain jeton
+     */
+    private long acquireToken() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Temps restant pour une requête arrivée à startNanos, exposé au handler
+     */
+    public TimeBudget budget(long startNanos) {
+        return deadlineNanos > 0 ? new TimeBudget(startNanos, deadlineNanos) : TimeBudget.UNBOUNDED;
+    }
+
+    /**
+     * Refuse la requête si son délai, compté depuis startNanos, est déjà dépassé.
+     * Appelé juste avant le handler : une réponse produite n'est jamais jetée.
+     */
+    public void checkDeadline(long startNanos) throws RouteRejectedException {
+        if (deadlineNanos > 0 && System.nanoTime() - startNanos > deadlineNanos) {
+            throw new RouteRejectedException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "DEADLINE_EXCEEDED",
+                    "Délai de " + TimeUnit.NANOSECONDS.toMillis(deadlineNanos) + " ms dépassé", 0);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package src.framework;
+
+/**
+ * Requête refusée par le contrôle d'admission d'une route (429 / 503)
+ */
+public class RouteRejectedException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final String code;
+    private final long retryAfterSeconds;
+
+    public RouteRejectedException(int status, String code, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.code = code;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
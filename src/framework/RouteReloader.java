@@ -0,0 +1,226 @@
+package src.framework;
+
+import annotation.AnnotationScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Mode watch : surveille /WEB-INF/classes et ne rescanne que les classes modifiées.
+ * Le nouvel instantané de routes est construit à côté de l'ancien puis publié
+ * d'un seul coup ; les requêtes en cours gardent l'instantané qu'elles ont lu.
+ * Limite : les classes rechargées sont définies par un nouveau ClassLoader, donc
+ * dans un autre package d'exécution que les classes non modifiées du même package.
+ */
+public class RouteReloader implements Runnable {
+    // Un compilateur écrit souvent plusieurs fichiers : on regroupe les événements proches
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path root;
+    private final ClassLoader parent;
+    private final Supplier<AnnotationScanner.ScanResult> current;
+    private final Consumer<AnnotationScanner.ScanResult> publish;
+    private final Consumer<String> log;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public RouteReloader(File classesRoot, ClassLoader parent, Supplier<AnnotationScanner.ScanResult> current,
+            Consumer<AnnotationScanner.ScanResult> publish, Consumer<String> log) throws IOException {
+        this.root = classesRoot.toPath();
+        this.parent = parent;
+        this.current = current;
+        this.publish = publish;
+        this.log = log;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                register(dir);
+            }
+        }
+
+        this.thread = new Thread(this, "framework-route-reloader");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        // Une classe rechargée vit dans son propre package d'exécution
+        log.accept("Watch: actif sur " + root + ". Une classe rechargée n'accède plus aux membres"
+                + " package-private des classes non rechargées du même package (IllegalAccessError)");
+        thread.start();
+    }
+
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+    }
+
+    private void register(Path dir) throws IOException {
+        dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> changed = new HashSet<>();
+                WatchKey key = watchService.take();
+                boolean overflow = collect(key, changed);
+
+                // Attendre la fin de la rafale d'écritures avant de recharger
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+
+                if (overflow) {
+                    // Des événements ont été perdus : on recharge tout ce qui est sur disque ou routé
+                    log.accept("Watch: événements perdus (OVERFLOW), rechargement complet");
+                    changed.addAll(allClassNames());
+                }
+                if (!changed.isEmpty()) {
+                    reload(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Arrêt du servlet
+        }
+    }
+
+    /**
+     * Ajoute à changed les classes touchées par les événements de key ; vrai en cas d'OVERFLOW
+     */
+    private boolean collect(WatchKey key, Set<String> changed) {
+        Path dir = (Path) key.watchable();
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    log.accept("Watch: impossible de surveiller " + path + ": " + e.getMessage());
+                }
+            } else if (path.toString().endsWith(".class")) {
+                // Une classe interne (A$1) fait recharger sa classe englobante
+                String className = AnnotationScanner.toClassName(root.toFile(), path.toFile());
+                int nested = className.indexOf('$');
+                changed.add(nested >= 0 ? className.substring(0, nested) : className);
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    /**
+     * Classes de premier niveau présentes sur disque ou déjà routées (une classe routée
+     * absente du disque sera ainsi retirée)
+     */
+    private Set<String> allClassNames() {
+        Set<String> names = new HashSet<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".class"))::iterator) {
+                String className = AnnotationScanner.toClassName(root.toFile(), file.toFile());
+                int nested = className.indexOf('$');
+                names.add(nested >= 0 ? className.substring(0, nested) : className);
+            }
+        } catch (IOException e) {
+            log.accept("Watch: parcours de " + root + " impossible: " + e.getMessage());
+        }
+        for (Class<?> clazz : current.get().controllerClasses) {
+            String className = clazz.getName();
+            int nested = className.indexOf('$');
+            names.add(nested >= 0 ? className.substring(0, nested) : className);
+        }
+        return names;
+    }
+
+    private void reload(Set<String> classNames) {
+        long start = System.nanoTime();
+        ClassLoader loader = new ReloadingClassLoader(parent, root, classNames);
+        AnnotationScanner.ScanResult next = AnnotationScanner.rescan(current.get(), classNames, loader, log);
+        publish.accept(next);
+        log.accept("Watch: " + classNames.size() + " classe(s) rechargée(s) en "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, "
+                + next.urlToMethod.size() + " route(s)");
+    }
+
+    /**
+     * Charge les classes modifiées (et leurs classes internes) depuis le disque
+     * plutôt que depuis le parent, qui a gardé l'ancienne version en cache
+     */
+    private static class ReloadingClassLoader extends ClassLoader {
+        private final Path root;
+        private final Set<String> classNames;
+
+        ReloadingClassLoader(ClassLoader parent, Path root, Set<String> classNames) {
+            super(parent);
+            this.root = root;
+            this.classNames = classNames;
+        }
+
+        private boolean isReloaded(String name) {
+            int nested = name.indexOf('$');
+            return classNames.contains(nested >= 0 ? name.substring(0, nested) : name);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isReloaded(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    clazz = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Path file = root.resolve(name.replace('.', File.separatorChar) + ".class");
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (NoSuchFileException e) {
+                // Seul cas traité comme une suppression par AnnotationScanner.rescan
+                throw new ClassNotFoundException(name, e);
+            } catch (IOException e) {
+                // Fichier présent mais illisible : échec de chargement, pas une suppression
+                NoClassDefFoundError error = new NoClassDefFoundError(name + ": " + e.getMessage());
+                error.initCause(e);
+                throw error;
+            }
+        }
+    }
+}
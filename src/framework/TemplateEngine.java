@@ -0,0 +1,382 @@
+package src.framework;
+
+import jakarta.servlet.ServletContext;
+import view.FieldCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moteur de templates intégré pour les vues ModelView.
+ * Un template est compilé une seule fois en arbre de nœuds puis rendu
+ * directement depuis les données du ModelView, sans attributs de requête.
+ *
+ * Syntaxe :
+ *   ${a.b}                 valeur échappée HTML
+ *   $!{a.b}                valeur brute
+ *   #{each x in items} ... #{end}
+ *   #{if cond} ... #{else} ... #{end}
+ */
+public class TemplateEngine {
+    private final ServletContext ctx;
+    private final ConcurrentHashMap<String, Template> templates = new ConcurrentHashMap<>();
+
+    public TemplateEngine(ServletContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /**
+     * Rend le template viewPath avec les données du modèle, à la suite de out
+     */
+    public void render(String viewPath, Map<String, Object> model, StringBuilder out) throws IOException {
+        Template template = templates.get(viewPath);
+        if (template == null) {
+            template = load(viewPath);
+            Template existing = templates.putIfAbsent(viewPath, template);
+            if (existing != null) {
+                template = existing;
+            }
+        }
+        template.render(new Scope(model, null, null, null), out);
+    }
+
+    private Template load(String viewPath) throws IOException {
+        try (InputStream in = ctx.getResourceAsStream(viewPath)) {
+            if (in == null) {
+                throw new IOException("Template introuvable: " + viewPath);
+            }
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return compile(viewPath, source);
+        }
+    }
+
+    /**
+     * Compile le source en arbre de nœuds
+     */
+    public static Template compile(String name, String source) {
+        Parser parser = new Parser(name, source);
+        List<Node> nodes = parser.parseBlock();
+        if (parser.pendingDirective != null) {
+            throw parser.error("#{" + parser.pendingDirective + "} inattendu");
+        }
+        return new Template(nodes);
+    }
+
+    public static class Template {
+        private final Node[] nodes;
+
+        Template(List<Node> nodes) {
+            this.nodes = nodes.toArray(new Node[0]);
+        }
+
+        void render(Scope scope, StringBuilder out) {
+            for (Node node : nodes) {
+                node.render(scope, out);
+            }
+        }
+    }
+
+    /**
+     * Variables visibles : variables de boucle chaînées, puis le modèle
+     */
+    private static class Scope {
+        final Map<String, Object> model;
+        final Scope parent;
+        final String name;
+        final Object value;
+
+        Scope(Map<String, Object> model, Scope parent, String name, Object value) {
+            this.model = model;
+            this.parent = parent;
+            this.name = name;
+            this.value = value;
+        }
+
+        Object lookup(String variable) {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (variable.equals(scope.name)) {
+                    return scope.value;
+                }
+            }
+            return model != null ? model.get(variable) : null;
+        }
+
+        Scope with(String variable, Object item) {
+            return new Scope(model, this, variable, item);
+        }
+    }
+
+    private interface Node {
+        void render(Scope scope, StringBuilder out);
+    }
+
+    private static class TextNode implements Node {
+        private final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static class ValueNode implements Node {
+        private final Expression expression;
+        private final boolean escape;
+
+        ValueNode(Expression expression, boolean escape) {
+            this.expression = expression;
+            this.escape = escape;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = expression.evaluate(scope);
+            if (value == null) {
+                return;
+            }
+            if (escape) {
+                escapeHtml(value.toString(), out);
+            } else {
+                out.append(value);
+            }
+        }
+    }
+
+    private static class EachNode implements Node {
+        private final String variable;
+        private final Expression items;
+        private final Node[] body;
+
+        EachNode(String variable, Expression items, List<Node> body) {
+            this.variable = variable;
+            this.items = items;
+            this.body = body.toArray(new Node[0]);
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = items.evaluate(scope);
+            if (value instanceof Iterable) {
+                for (Object item : (Iterable<?>) value) {
+                    renderItem(scope, item, out);
+                }
+            } else if (value instanceof Map) {
+                for (Object item : ((Map<?, ?>) value).entrySet()) {
+                    renderItem(scope, item, out);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                for (int i = 0; i < length; i++) {
+                    renderItem(scope, Array.get(value, i), out);
+                }
+            }
+        }
+
+        private void renderItem(Scope scope, Object item, StringBuilder out) {
+            Scope itemScope = scope.with(variable, item);
+            for (Node node : body) {
+                node.render(itemScope, out);
+            }
+        }
+    }
+
+    private static class IfNode implements Node {
+        private final Expression condition;
+        private final Node[] whenTrue;
+        private final Node[] whenFalse;
+
+        IfNode(Expression condition, List<Node> whenTrue, List<Node> whenFalse) {
+            this.condition = condition;
+            this.whenTrue = whenTrue.toArray(new Node[0]);
+            this.whenFalse = whenFalse.toArray(new Node[0]);
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            for (Node node : isTrue(condition.evaluate(scope)) ? whenTrue : whenFalse) {
+                node.render(scope, out);
+            }
+        }
+
+        private static boolean isTrue(Object value) {
+            if (value == null) return false;
+            if (value instanceof Boolean) return (Boolean) value;
+            if (value instanceof Number) return ((Number) value).doubleValue() != 0;
+            if (value instanceof CharSequence) return ((CharSequence) value).length() > 0;
+            if (value instanceof Collection) return !((Collection<?>) value).isEmpty();
+            if (value instanceof Map) return !((Map<?, ?>) value).isEmpty();
+            if (value.getClass().isArray()) return Array.getLength(value) > 0;
+            return true;
+        }
+    }
+
+    /**
+     * Chemin pointé a.b.c : clé de Map ou champ d'objet à chaque segment
+     */
+    private static class Expression {
+        private final String root;
+        private final String[] path;
+
+        Expression(String source) {
+            String[] segments = source.trim().split("\\.");
+            this.root = segments[0];
+            this.path = new String[segments.length - 1];
+            System.arraycopy(segments, 1, path, 0, path.length);
+        }
+
+        Object evaluate(Scope scope) {
+            Object value = scope.lookup(root);
+            for (String segment : path) {
+                if (value == null) {
+                    return null;
+                }
+                value = property(value, segment);
+            }
+            return value;
+        }
+
+        private static Object property(Object target, String name) {
+            if (target instanceof Map) {
+                return ((Map<?, ?>) target).get(name);
+            }
+            if (target instanceof Map.Entry) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) target;
+                if (name.equals("key")) return entry.getKey();
+                if (name.equals("value")) return entry.getValue();
+            }
+            for (Field field : FieldCache.fieldsOf(target.getClass())) {
+                if (field.getName().equals(name)) {
+                    try {
+                        return field.get(target);
+                    } catch (IllegalAccessException e) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Parser {
+        private final String name;
+        private final String source;
+        private int pos;
+        // Directive de fin de bloc rencontrée (end / else), à traiter par l'appelant
+        String pendingDirective;
+
+        Parser(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        List<Node> parseBlock() {
+            List<Node> nodes = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+
+            while (pos < source.length()) {
+                if (source.startsWith("${", pos) || source.startsWith("$!{", pos)) {
+                    flushText(text, nodes);
+                    boolean raw = source.charAt(pos + 1) == '!';
+                    pos += raw ? 3 : 2;
+                    nodes.add(new ValueNode(new Expression(readUntilBrace()), !raw));
+                } else if (source.startsWith("#{", pos)) {
+                    flushText(text, nodes);
+                    pos += 2;
+                    String directive = readUntilBrace().trim();
+
+                    if (directive.equals("end") || directive.equals("else")) {
+                        pendingDirective = directive;
+                        return nodes;
+                    } else if (directive.startsWith("each ")) {
+                        nodes.add(parseEach(directive));
+                    } else if (directive.startsWith("if ")) {
+                        nodes.add(parseIf(directive));
+                    } else {
+                        throw error("Directive inconnue: #{" + directive + "}");
+                    }
+                } else {
+                    text.append(source.charAt(pos++));
+                }
+            }
+
+            flushText(text, nodes);
+            return nodes;
+        }
+
+        private Node parseEach(String directive) {
+            String[] parts = directive.substring(5).trim().split("\\s+in\\s+");
+            if (parts.length != 2) {
+                throw error("Syntaxe attendue: #{each x in items}");
+            }
+            List<Node> body = parseBlock();
+            expectEnd();
+            return new EachNode(parts[0].trim(), new Expression(parts[1]), body);
+        }
+
+        private Node parseIf(String directive) {
+            Expression condition = new Expression(directive.substring(3));
+            List<Node> whenTrue = parseBlock();
+            List<Node> whenFalse = new ArrayList<>();
+            if ("else".equals(pendingDirective)) {
+                pendingDirective = null;
+                whenFalse = parseBlock();
+            }
+            expectEnd();
+            return new IfNode(condition, whenTrue, whenFalse);
+        }
+
+        private void expectEnd() {
+            if (!"end".equals(pendingDirective)) {
+                throw error("#{end} manquant");
+            }
+            pendingDirective = null;
+        }
+
+        private String readUntilBrace() {
+            int end = source.indexOf('}', pos);
+            if (end < 0) {
+                throw error("'}' manquant");
+            }
+            String content = source.substring(pos, end);
+            pos = end + 1;
+            return content;
+        }
+
+        private void flushText(StringBuilder text, List<Node> nodes) {
+            if (text.length() > 0) {
+                nodes.add(new TextNode(text.toString()));
+                text.setLength(0);
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(name + ": " + message + " (position " + pos + ")");
+        }
+    }
+
+    private static void escapeHtml(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+}
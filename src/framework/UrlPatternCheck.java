@@ -59,6 +59,20 @@ public class UrlPatternCheck {
         return params;
     }
 
+    /**
+     * Teste l'URL et, si elle correspond, ajoute ses variables dans params
+     */
+    public boolean matchInto(String url, Map<String, Object> params) {
+        Matcher matcher = regex.matcher(url);
+        if (!matcher.matches()) {
+            return false;
+        }
+        for (int i = 0; i < paramNames.size(); i++) {
+            params.put(paramNames.get(i), matcher.group(i + 1));
+        }
+        return true;
+    }
+
     public String getPattern() {
         return pattern;
     }
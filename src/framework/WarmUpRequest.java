@@ -0,0 +1,61 @@
+package src.framework;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+/**
+ * Requête synthétique du warm-up : tout paramètre demandé vaut "1",
+ * ce qui se convertit vers tous les types simples gérés par convertValue.
+ * Aucun corps, aucun en-tête, aucune partie multipart.
+ */
+public class WarmUpRequest {
+    private static final String SAMPLE_VALUE = "1";
+
+    private WarmUpRequest() {
+    }
+
+    public static HttpServletRequest create(String httpMethod, String path) {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                WarmUpRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMethod":
+                            return httpMethod;
+                        case "getRequestURI":
+                        case "getServletPath":
+                            return path;
+                        case "getContextPath":
+                            return "";
+                        case "getParameter":
+                            return SAMPLE_VALUE;
+                        case "getParameterValues":
+                            return new String[] { SAMPLE_VALUE };
+                        case "getParameterMap":
+                            return Collections.emptyMap();
+                        case "getParameterNames":
+                        case "getHeaderNames":
+                        case "getHeaders":
+                        case "getAttributeNames":
+                            return Collections.emptyEnumeration();
+                        case "toString":
+                            return "WarmUpRequest[" + httpMethod + " " + path + "]";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
@@ -0,0 +1,202 @@
+package view;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encodage CBOR (RFC 8949) de l'enveloppe RestResponse.
+ * Même structure que toJson() : status / data / error, mêmes champs
+ * pour les objets personnalisés (voir FieldCache).
+ */
+public class CborEncoder {
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+
+    // Tags RFC 8949 §3.4.3 / §3.4.4 : grands entiers et fractions décimales, sans perte
+    private static final int TAG_POSITIVE_BIGNUM = 2;
+    private static final int TAG_NEGATIVE_BIGNUM = 3;
+    private static final int TAG_DECIMAL_FRACTION = 4;
+
+    // Marque un champ illisible, sans toucher au tableau partagé de FieldCache
+    private static final Object SKIPPED = new Object();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    private CborEncoder() {
+    }
+
+    public static byte[] encode(RestResponse response) {
+        CborEncoder encoder = new CborEncoder();
+        encoder.writeEnvelope(response);
+        return encoder.out.toByteArray();
+    }
+
+    private void writeEnvelope(RestResponse response) {
+        writeHeader(MAJOR_MAP, 3);
+        writeText("status");
+        writeValue(response.getStatus());
+        writeText("data");
+        writeValue(response.getData());
+        writeText("error");
+
+        RestResponse.ErrorDetail error = response.getError();
+        if (error == null) {
+            out.write(0xf6);
+        } else {
+            writeHeader(MAJOR_MAP, 3);
+            writeText("code");
+            writeValue(error.getCode());
+            writeText("message");
+            writeValue(error.getMessage());
+            writeText("details");
+            writeValue(error.getDetails());
+        }
+    }
+
+    private void writeValue(Object obj) {
+        if (obj == null) {
+            out.write(0xf6);
+            return;
+        }
+
+        if (obj instanceof String) {
+            writeText((String) obj);
+        } else if (obj instanceof Boolean) {
+            out.write((Boolean) obj ? 0xf5 : 0xf4);
+        } else if (obj instanceof Integer || obj instanceof Long || obj instanceof Short || obj instanceof Byte
+                || obj instanceof AtomicInteger || obj instanceof AtomicLong) {
+            writeLong(((Number) obj).longValue());
+        } else if (obj instanceof Float) {
+            out.write(0xfa);
+            writeBytes(Float.floatToIntBits((Float) obj), 4);
+        } else if (obj instanceof BigInteger) {
+            writeBigInteger((BigInteger) obj);
+        } else if (obj instanceof BigDecimal) {
+            // Fraction décimale [exposant, mantisse] : même valeur exacte que toString() en JSON
+            BigDecimal decimal = (BigDecimal) obj;
+            writeHeader(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+            writeHeader(MAJOR_ARRAY, 2);
+            writeLong(-(long) decimal.scale());
+            writeBigInteger(decimal.unscaledValue());
+        } else if (obj instanceof Number) {
+            out.write(0xfb);
+            writeBytes(Double.doubleToLongBits(((Number) obj).doubleValue()), 8);
+        } else if (obj instanceof Character) {
+            writeText(obj.toString());
+        } else if (obj instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            writeHeader(MAJOR_MAP, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeText(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue());
+            }
+        } else if (obj instanceof Collection) {
+            Collection<?> collection = (Collection<?>) obj;
+            writeHeader(MAJOR_ARRAY, collection.size());
+            for (Object item : collection) {
+                writeValue(item);
+            }
+        } else if (obj.getClass().isArray()) {
+            int length = Array.getLength(obj);
+            writeHeader(MAJOR_ARRAY, length);
+            for (int i = 0; i < length; i++) {
+                writeValue(Array.get(obj, i));
+            }
+        } else {
+            writeObject(obj);
+        }
+    }
+
+    private void writeObject(Object obj) {
+        Field[] fields = FieldCache.fieldsOf(obj.getClass());
+        Object[] values = new Object[fields.length];
+        int count = 0;
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                values[i] = fields[i].get(obj);
+                count++;
+            } catch (IllegalAccessException e) {
+                // Ignorer les champs inaccessibles
+                values[i] = SKIPPED;
+            }
+        }
+
+        writeHeader(MAJOR_MAP, count);
+        for (int i = 0; i < fields.length; i++) {
+            if (values[i] != SKIPPED) {
+                writeText(fields[i].getName());
+                writeValue(values[i]);
+            }
+        }
+    }
+
+    private void writeBigInteger(BigInteger value) {
+        if (value.bitLength() < 64) {
+            writeLong(value.longValue());
+            return;
+        }
+        // Bignum négatif : on encode -1 - n, comme pour les entiers
+        boolean negative = value.signum() < 0;
+        byte[] bytes = (negative ? value.not() : value).toByteArray();
+        // toByteArray() ajoute un octet de signe nul quand le bit de poids fort est pris
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeHeader(MAJOR_TAG, negative ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        writeHeader(MAJOR_BYTES, bytes.length - offset);
+        out.write(bytes, offset, bytes.length - offset);
+    }
+
+    private void writeLong(long value) {
+        if (value >= 0) {
+            writeHeader(MAJOR_UNSIGNED, value);
+        } else {
+            // Entier négatif : on encode -1 - n
+            writeHeader(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    private void writeText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHeader(MAJOR_TEXT, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeHeader(int major, long length) {
+        int type = major << 5;
+        if (length < 24) {
+            out.write(type | (int) length);
+        } else if (length < 0x100) {
+            out.write(type | 24);
+            writeBytes(length, 1);
+        } else if (length < 0x10000) {
+            out.write(type | 25);
+            writeBytes(length, 2);
+        } else if (length < 0x100000000L) {
+            out.write(type | 26);
+            writeBytes(length, 4);
+        } else {
+            out.write(type | 27);
+            writeBytes(length, 8);
+        }
+    }
+
+    private void writeBytes(long value, int size) {
+        for (int shift = (size - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package view;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Champs sérialisables d'une classe, calculés une seule fois par classe :
+ * champs de la classe puis de ses parents, hors static et transient,
+ * déjà rendus accessibles.
+ * Le cache est porté par la classe elle-même (ClassValue) : une classe
+ * rechargée par le mode watch est libérée avec son ClassLoader.
+ */
+public class FieldCache {
+    private static final ClassValue<Field[]> CACHE = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return collect(type);
+        }
+    };
+
+    private FieldCache() {
+    }
+
+    public static Field[] fieldsOf(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    private static Field[] collect(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        Class<?> clazz = type;
+
+        while (clazz != null && clazz != Object.class) {
+            for (Field field : clazz.getDeclaredFields()) {
+                // Ignorer les champs statiques et transient
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    fields.add(field);
+                } catch (RuntimeException e) {
+                    // Ignorer les champs inaccessibles
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+
+        return fields.toArray(new Field[0]);
+    }
+}
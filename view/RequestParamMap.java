@@ -0,0 +1,107 @@
+package view;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vue en lecture seule sur les paramètres de la requête et les variables du chemin.
+ * Rien n'est copié à la construction : chaque clé est résolue à la lecture,
+ * les variables du chemin ayant priorité. Une valeur unique est rendue en String,
+ * plusieurs valeurs en String[] (une copie : la requête n'est jamais modifiable par ce biais).
+ */
+public class RequestParamMap extends AbstractMap<String, Object> {
+    private final Map<String, String[]> requestParams;
+    private final Map<String, Object> urlParams;
+    private Set<Entry<String, Object>> entries;
+
+    public RequestParamMap(Map<String, String[]> requestParams, Map<String, Object> urlParams) {
+        this.requestParams = requestParams;
+        this.urlParams = urlParams;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object urlValue = urlParams.get(key);
+        if (urlValue != null) {
+            return urlValue;
+        }
+
+        String[] values = requestParams.get(key);
+        if (values == null) {
+            return null;
+        }
+        // Copie : le tableau appartient à la requête du conteneur
+        return values.length == 1 ? values[0] : values.clone();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return urlParams.containsKey(key) || requestParams.containsKey(key);
+    }
+
+    /**
+     * Première valeur du paramètre, sans conversion
+     */
+    public String getString(String key) {
+        Object urlValue = urlParams.get(key);
+        if (urlValue != null) {
+            return urlValue.toString();
+        }
+
+        String[] values = requestParams.get(key);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * Toutes les valeurs du paramètre, dans un tableau propre à l'appelant
+     */
+    public String[] getValues(String key) {
+        Object urlValue = urlParams.get(key);
+        if (urlValue != null) {
+            return new String[] { urlValue.toString() };
+        }
+        String[] values = requestParams.get(key);
+        return values != null ? values.clone() : null;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key);
+        return value != null && !value.isEmpty() ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key);
+        return value != null && !value.isEmpty() ? Long.parseLong(value) : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = getString(key);
+        return value != null && !value.isEmpty() ? Double.parseDouble(value) : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key);
+        return value != null && !value.isEmpty() ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    /**
+     * La fusion complète n'est construite que si la map est parcourue
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entries == null) {
+            Map<String, Object> merged = new LinkedHashMap<>();
+            for (String key : requestParams.keySet()) {
+                merged.put(key, get(key));
+            }
+            for (Map.Entry<String, Object> entry : urlParams.entrySet()) {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+            entries = Collections.unmodifiableMap(merged).entrySet();
+        }
+        return entries;
+    }
+}
@@ -1,14 +1,25 @@
 package view;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RestResponse {
     private String status;
     private Object data;
     private ErrorDetail error;
+    // Version fournie par le handler pour l'ETag, jamais sérialisée
+    private String version;
+
+    // Sérialisation parallèle des grandes collections, désactivée par défaut
+    private static volatile ForkJoinPool parallelPool;
+    private static volatile int parallelThreshold;
 
     public RestResponse() {
     }
@@ -53,83 +64,152 @@ public class RestResponse {
         this.error = error;
     }
 
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Version de la ressource : l'ETag en est dérivé sans sérialiser la réponse
+     */
+    public RestResponse withVersion(String version) {
+        this.version = version;
+        return this;
+    }
+
+    /**
+     * Active la sérialisation parallèle : les collections et tableaux d'au moins
+     * threshold éléments sont découpés en morceaux sérialisés sur un pool borné,
+     * puis recollés dans l'ordre. Le JSON produit est identique au séquentiel.
+     */
+    public static synchronized void enableParallelSerialization(int threshold, int parallelism) {
+        disableParallelSerialization();
+        parallelThreshold = threshold;
+        parallelPool = new ForkJoinPool(parallelism);
+    }
+
+    public static synchronized void disableParallelSerialization() {
+        ForkJoinPool pool = parallelPool;
+        parallelPool = null;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     public String toJson() {
-        StringBuilder json = new StringBuilder("{");
+        StringBuilder json = new StringBuilder();
+        writeJson(json);
+        return json.toString();
+    }
+
+    /**
+     * Écrit l'enveloppe JSON à la suite de json, sans chaîne intermédiaire
+     */
+    public void writeJson(StringBuilder json) {
+        json.append("{");
         json.append("\"status\":\"").append(status).append("\",");
-        json.append("\"data\":").append(objectToJson(data)).append(",");
-        json.append("\"error\":").append(error != null ? error.toJson() : "null");
+        json.append("\"data\":");
+        objectToJson(data, json);
+        json.append(",");
+        json.append("\"error\":");
+        if (error != null) {
+            error.writeJson(json);
+        } else {
+            json.append("null");
+        }
         json.append("}");
+    }
+
+    /**
+     * Sérialise une valeur quelconque avec le même format JSON que l'enveloppe
+     */
+    public static String valueToJson(Object value) {
+        StringBuilder json = new StringBuilder();
+        new RestResponse().objectToJson(value, json);
         return json.toString();
     }
 
-    private String objectToJson(Object obj) {
+    private void objectToJson(Object obj, StringBuilder json) {
         if (obj == null) {
-            return "null";
+            json.append("null");
+            return;
         }
         
         Class<?> clazz = obj.getClass();
         
         // Types primitifs et wrappers
         if (obj instanceof String) {
-            return "\"" + escapeJson((String) obj) + "\"";
-        }
-        if (obj instanceof Number || obj instanceof Boolean) {
-            return obj.toString();
+            json.append("\"");
+            escapeJson((String) obj, json);
+            json.append("\"");
+        } else if (obj instanceof Number || obj instanceof Boolean) {
+            json.append(obj.toString());
+        } else if (obj instanceof Character) {
+            // Comme CborEncoder : un caractère est une chaîne d'un caractère
+            json.append("\"");
+            escapeJson(obj.toString(), json);
+            json.append("\"");
         }
-        
         // Map
-        if (obj instanceof Map) {
-            return mapToJson((Map<?, ?>) obj);
+        else if (obj instanceof Map) {
+            mapToJson((Map<?, ?>) obj, json);
         }
-        
         // Collection (List, Set, etc.)
-        if (obj instanceof Collection) {
-            return collectionToJson((Collection<?>) obj);
+        else if (obj instanceof Collection) {
+            collectionToJson((Collection<?>) obj, json);
         }
-        
         // Tableaux
-        if (clazz.isArray()) {
-            return arrayToJson(obj);
+        else if (clazz.isArray()) {
+            arrayToJson(obj, json);
         }
-        
         // Objets personnalisés - utiliser la réflexion
-        return customObjectToJson(obj);
+        else {
+            customObjectToJson(obj, json);
+        }
     }
 
-    private String mapToJson(Map<?, ?> map) {
-        StringBuilder json = new StringBuilder("{");
+    private void mapToJson(Map<?, ?> map, StringBuilder json) {
+        json.append("{");
         boolean first = true;
         for (Map.Entry<?, ?> entry : map.entrySet()) {
             if (!first) json.append(",");
             json.append("\"").append(entry.getKey()).append("\":");
-            json.append(objectToJson(entry.getValue()));
+            objectToJson(entry.getValue(), json);
             first = false;
         }
         json.append("}");
-        return json.toString();
     }
 
-    private String collectionToJson(Collection<?> collection) {
-        StringBuilder json = new StringBuilder("[");
+    private void collectionToJson(Collection<?> collection, StringBuilder json) {
+        ForkJoinPool pool = parallelPoolFor(collection.size());
+        if (pool != null) {
+            parallelItemsToJson(pool, collection.toArray(), json);
+            return;
+        }
+        json.append("[");
         boolean first = true;
         for (Object item : collection) {
             if (!first) json.append(",");
-            json.append(objectToJson(item));
+            objectToJson(item, json);
             first = false;
         }
         json.append("]");
-        return json.toString();
     }
 
-    private String arrayToJson(Object array) {
-        StringBuilder json = new StringBuilder("[");
+    private void arrayToJson(Object array, StringBuilder json) {
+        ForkJoinPool pool = array instanceof Object[] ? parallelPoolFor(((Object[]) array).length) : null;
+        if (pool != null) {
+            parallelItemsToJson(pool, (Object[]) array, json);
+            return;
+        }
+        
+        json.append("[");
         boolean first = true;
         
         if (array instanceof Object[]) {
             Object[] objArray = (Object[]) array;
             for (Object item : objArray) {
                 if (!first) json.append(",");
-                json.append(objectToJson(item));
+                objectToJson(item, json);
                 first = false;
             }
         } else if (array instanceof int[]) {
@@ -160,56 +240,110 @@ public class RestResponse {
                 json.append(item);
                 first = false;
             }
+        } else {
+            // float[], short[], byte[], char[] : éléments émis comme par CborEncoder
+            int length = Array.getLength(array);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) json.append(",");
+                objectToJson(Array.get(array, i), json);
+            }
         }
         
         json.append("]");
-        return json.toString();
     }
 
-    private String customObjectToJson(Object obj) {
-        StringBuilder json = new StringBuilder("{");
+    /**
+     * Pool à utiliser pour size éléments, ou null pour rester séquentiel.
+     * Le champ n'est lu qu'une fois : disableParallelSerialization() peut le vider à tout moment.
+     */
+    private static ForkJoinPool parallelPoolFor(int size) {
+        ForkJoinPool pool = parallelPool;
+        // Pas d'imbrication : un élément déjà sérialisé sur le pool reste séquentiel
+        if (pool == null || size < parallelThreshold || ForkJoinTask.inForkJoinPool()) {
+            return null;
+        }
+        return pool;
+    }
+
+    /**
+     * Sérialise items en morceaux parallèles, chacun dans son propre tampon,
+     * puis les ajoute à json dans l'ordre d'origine
+     */
+    private void parallelItemsToJson(ForkJoinPool pool, Object[] items, StringBuilder json) {
+        int chunkCount = Math.max(1, Math.min(pool.getParallelism() * 4, items.length / 64));
+        int chunkSize = (items.length + chunkCount - 1) / chunkCount;
+
+        List<ForkJoinTask<StringBuilder>> chunks = new ArrayList<>();
+        try {
+            for (int start = 0; start < items.length; start += chunkSize) {
+                int from = start;
+                int to = Math.min(items.length, start + chunkSize);
+                chunks.add(pool.submit(() -> {
+                    StringBuilder chunk = new StringBuilder((to - from) * 16);
+                    for (int i = from; i < to; i++) {
+                        if (i > from) chunk.append(",");
+                        objectToJson(items[i], chunk);
+                    }
+                    return chunk;
+                }));
+            }
+        } catch (RejectedExecutionException e) {
+            // Pool arrêté entre-temps : repli séquentiel
+            chunks.clear();
+        }
+
+        json.append("[");
+        if (chunks.isEmpty()) {
+            for (int i = 0; i < items.length; i++) {
+                if (i > 0) json.append(",");
+                objectToJson(items[i], json);
+            }
+        } else {
+            for (int i = 0; i < chunks.size(); i++) {
+                if (i > 0) json.append(",");
+                json.append(chunks.get(i).join());
+            }
+        }
+        json.append("]");
+    }
+
+    private void customObjectToJson(Object obj, StringBuilder json) {
+        json.append("{");
         boolean first = true;
         
-        Class<?> clazz = obj.getClass();
-        
-        // Parcourir tous les champs (y compris privés)
-        while (clazz != null && clazz != Object.class) {
-            for (Field field : clazz.getDeclaredFields()) {
-                // Ignorer les champs statiques et transient
-                int modifiers = field.getModifiers();
-                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
-                    continue;
-                }
+        // Champs (y compris privés et hérités) mis en cache par classe
+        for (Field field : FieldCache.fieldsOf(obj.getClass())) {
+            try {
+                Object value = field.get(obj);
+                
+                if (!first) json.append(",");
+                json.append("\"").append(field.getName()).append("\":");
+                
+                // Appel récursif pour gérer les objets imbriqués
+                objectToJson(value, json);
                 
-                try {
-                    field.setAccessible(true);
-                    Object value = field.get(obj);
-                    
-                    if (!first) json.append(",");
-                    json.append("\"").append(field.getName()).append("\":");
-                    
-                    // Appel récursif pour gérer les objets imbriqués
-                    json.append(objectToJson(value));
-                    
-                    first = false;
-                } catch (IllegalAccessException e) {
-                    // Ignorer les champs inaccessibles
-                }
+                first = false;
+            } catch (IllegalAccessException e) {
+                // Ignorer les champs inaccessibles
             }
-            clazz = clazz.getSuperclass();
         }
         
         json.append("}");
-        return json.toString();
     }
 
-    private String escapeJson(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    private static void escapeJson(String str, StringBuilder json) {
+        if (str == null) return;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '\\': json.append("\\\\"); break;
+                case '"': json.append("\\\""); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default: json.append(c);
+            }
+        }
     }
 
     public static class ErrorDetail {
@@ -224,33 +358,35 @@ public class RestResponse {
         }
 
         public String toJson() {
-            StringBuilder json = new StringBuilder("{");
-            json.append("\"code\":\"").append(escapeJson(code)).append("\",");
-            json.append("\"message\":\"").append(escapeJson(message)).append("\",");
+            StringBuilder json = new StringBuilder();
+            writeJson(json);
+            return json.toString();
+        }
+
+        void writeJson(StringBuilder json) {
+            json.append("{");
+            json.append("\"code\":\"");
+            escapeJson(code, json);
+            json.append("\",");
+            json.append("\"message\":\"");
+            escapeJson(message, json);
+            json.append("\",");
             json.append("\"details\":");
             
             // Utiliser la même logique récursive pour details
             if (details == null) {
                 json.append("null");
             } else if (details instanceof String) {
-                json.append("\"").append(escapeJson(details.toString())).append("\"");
+                json.append("\"");
+                escapeJson(details.toString(), json);
+                json.append("\"");
             } else {
                 // Créer une instance temporaire pour utiliser objectToJson
                 RestResponse temp = new RestResponse();
-                json.append(temp.objectToJson(details));
+                temp.objectToJson(details, json);
             }
             
             json.append("}");
-            return json.toString();
-        }
-
-        private String escapeJson(String str) {
-            if (str == null) return "";
-            return str.replace("\\", "\\\\")
-                      .replace("\"", "\\\"")
-                      .replace("\n", "\\n")
-                      .replace("\r", "\\r")
-                      .replace("\t", "\\t");
         }
 
         public String getCode() {
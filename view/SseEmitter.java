@@ -0,0 +1,256 @@
+package view;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux Server-Sent Events ouvert sur une requête asynchrone.
+ * Un handler qui déclare un paramètre SseEmitter garde la connexion ouverte
+ * sans bloquer de thread du conteneur : les événements sont mis en file
+ * et écrits de façon non bloquante dès que la sortie est prête.
+ * La file est bornée : un client trop lent est déconnecté plutôt que de
+ * faire grossir le tas. Un heartbeat optionnel (commentaire ":") fait
+ * apparaître un client disparu comme une erreur d'écriture.
+ */
+public class SseEmitter {
+    private static final byte[] HEARTBEAT = ":\n".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile int maxPending = 1024;
+    private static volatile long heartbeatSeconds;
+    private static volatile ScheduledExecutorService heartbeatScheduler;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // AsyncContext.complete() ne doit être appelé qu'une fois
+    private final AtomicBoolean asyncCompleted = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean completing = false;
+    private volatile Runnable onClose;
+    private volatile ScheduledFuture<?> heartbeat;
+
+    public SseEmitter(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/event-stream; charset=UTF-8");
+        resp.setHeader("Cache-Control", "no-cache");
+        resp.setHeader("X-Accel-Buffering", "no");
+
+        this.asyncContext = req.startAsync(req, resp);
+        // Pas de timeout : la connexion reste ouverte jusqu'à complete() ou déconnexion
+        this.asyncContext.setTimeout(0);
+        this.asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                asyncCompleted.set(true);
+                close();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            this.out = resp.getOutputStream();
+            this.out.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    drain();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    close();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // Ne pas laisser la requête asynchrone ouverte si le flux n'a pas pu être préparé
+            completeAsync();
+            throw e;
+        }
+
+        ScheduledExecutorService scheduler = heartbeatScheduler;
+        long interval = heartbeatSeconds;
+        if (scheduler != null) {
+            try {
+                heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, interval, interval, TimeUnit.SECONDS);
+            } catch (RuntimeException e) {
+                // Planificateur arrêté entre-temps (arrêt du servlet) : pas de heartbeat
+            }
+        }
+    }
+
+    /**
+     * Configure tous les emitters : taille maximale de la file par client et
+     * intervalle du heartbeat en secondes (0 pour le désactiver)
+     */
+    public static synchronized void configure(int maxPendingEvents, int heartbeatIntervalSeconds) {
+        shutdownHeartbeat();
+        maxPending = Math.max(1, maxPendingEvents);
+        heartbeatSeconds = heartbeatIntervalSeconds;
+        if (heartbeatIntervalSeconds > 0) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "framework-sse-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Un emitter fermé ne doit pas laisser sa tâche dans la file du planificateur
+            scheduler.setRemoveOnCancelPolicy(true);
+            heartbeatScheduler = scheduler;
+        }
+    }
+
+    public static synchronized void shutdownHeartbeat() {
+        ScheduledExecutorService scheduler = heartbeatScheduler;
+        heartbeatScheduler = null;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Envoie un événement anonyme, la donnée est sérialisée en JSON
+     */
+    public void send(Object data) {
+        send(null, data);
+    }
+
+    /**
+     * Envoie un événement nommé, la donnée est sérialisée en JSON
+     */
+    public void send(String event, Object data) {
+        if (closed.get() || completing) {
+            return;
+        }
+
+        StringBuilder frame = new StringBuilder();
+        if (event != null) {
+            frame.append("event: ").append(event).append("\n");
+        }
+        frame.append("data: ").append(RestResponse.valueToJson(data)).append("\n\n");
+
+        enqueue(frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Termine le flux une fois les événements en attente écrits ; sans effet si déjà demandé
+     */
+    public void complete() {
+        completing = true;
+        scheduleDrain();
+    }
+
+    /**
+     * Callback appelé quand le client se déconnecte ou que le flux est terminé
+     */
+    public void onClose(Runnable callback) {
+        this.onClose = callback;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    private void sendHeartbeat() {
+        // Inutile si des événements attendent déjà : leur écriture teste la connexion
+        if (pendingCount.get() == 0 && !closed.get() && !completing) {
+            enqueue(HEARTBEAT);
+        }
+    }
+
+    private void enqueue(byte[] frame) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            // Client qui ne lit plus : on le déconnecte plutôt que d'accumuler
+            pendingCount.decrementAndGet();
+            close();
+            return;
+        }
+        pending.add(frame);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        try {
+            drain();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private synchronized void drain() throws IOException {
+        if (closed.get()) {
+            return;
+        }
+
+        // N'écrire que lorsque la sortie est prête ; sinon onWritePossible relancera drain()
+        while (out.isReady()) {
+            byte[] frame = pending.poll();
+            if (frame == null) {
+                if (completing) {
+                    completeAsync();
+                } else {
+                    out.flush();
+                }
+                return;
+            }
+            pendingCount.decrementAndGet();
+            out.write(frame);
+        }
+    }
+
+    private void completeAsync() {
+        if (asyncCompleted.compareAndSet(false, true)) {
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Déjà terminé par le conteneur (déconnexion, erreur)
+            }
+        }
+    }
+
+    private void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        ScheduledFuture<?> task = heartbeat;
+        if (task != null) {
+            task.cancel(false);
+        }
+        pending.clear();
+        pendingCount.set(0);
+        // Libère la connexion : déconnexion, file pleine ou erreur d'écriture
+        completeAsync();
+
+        Runnable callback = onClose;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package view;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps restant avant le @Deadline de la route, compté depuis l'entrée de la
+ * requête dans le framework. Un handler qui déclare un paramètre TimeBudget
+ * peut le transmettre à ses appels (timeouts JDBC, HTTP...) ou abandonner un
+ * travail devenu inutile ; le framework n'interrompt jamais le handler.
+ */
+public class TimeBudget {
+    public static final TimeBudget UNBOUNDED = new TimeBudget(0, 0);
+
+    private final long startNanos;
+    private final long budgetNanos;
+
+    /**
+     * budgetNanos à 0 : pas de délai
+     */
+    public TimeBudget(long startNanos, long budgetNanos) {
+        this.startNanos = startNanos;
+        this.budgetNanos = budgetNanos;
+    }
+
+    public boolean isBounded() {
+        return budgetNanos > 0;
+    }
+
+    /**
+     * Millisecondes restantes (0 si dépassé), Long.MAX_VALUE sans délai
+     */
+    public long remainingMillis() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = budgetNanos - (System.nanoTime() - startNanos);
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) : 0;
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - startNanos > budgetNanos;
+    }
+}
@@ -0,0 +1,61 @@
+package view;
+
+import jakarta.servlet.http.Part;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Fichier reçu dans une requête multipart/form-data.
+ * Le contenu reste en mémoire sous le seuil fileSizeThreshold et est
+ * écrit dans un fichier temporaire au-delà : il n'est jamais chargé
+ * entièrement sur le tas, on le lit en flux.
+ */
+public class UploadedFile {
+    private final Part part;
+
+    public UploadedFile(Part part) {
+        this.part = part;
+    }
+
+    /**
+     * Nom du champ du formulaire
+     */
+    public String getName() {
+        return part.getName();
+    }
+
+    /**
+     * Nom du fichier tel qu'envoyé par le client
+     */
+    public String getFileName() {
+        return part.getSubmittedFileName();
+    }
+
+    public String getContentType() {
+        return part.getContentType();
+    }
+
+    public long getSize() {
+        return part.getSize();
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return part.getInputStream();
+    }
+
+    /**
+     * Enregistre le fichier ; le conteneur déplace le fichier temporaire quand c'est possible
+     */
+    public void transferTo(Path target) throws IOException {
+        part.write(target.toAbsolutePath().toString());
+    }
+
+    /**
+     * Supprime le fichier temporaire sans attendre la fin de la requête
+     */
+    public void delete() throws IOException {
+        part.delete();
+    }
+}